@@ -2,6 +2,7 @@ plugins {
     id("java")
     id("org.jetbrains.kotlin.jvm") version "1.9.24"
     id("org.jetbrains.intellij") version "1.17.3"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.dobest1.copy2md"
@@ -12,6 +13,7 @@ repositories {
 }
 
 dependencies {
+    implementation(project(":core"))
     testImplementation("org.junit.jupiter:junit-jupiter-api:5.8.1")
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.8.1")
 }
@@ -30,6 +32,17 @@ sourceSets {
         java.srcDirs("src/main/java")
         kotlin.srcDirs("src/main/kotlin")
     }
+    named("jmh") {
+        // Benchmarks exercise IDE-free code, but signatures of the classes they load mention platform types
+        compileClasspath += sourceSets.main.get().compileClasspath
+        runtimeClasspath += sourceSets.main.get().compileClasspath
+    }
+}
+
+jmh {
+    // ./gradlew jmh, results in build/results/jmh/results.json
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
 }
 
 tasks {
@@ -0,0 +1,41 @@
+plugins {
+    id("java")
+    application
+}
+
+group = "com.dobest1.copy2md"
+version = rootProject.version
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    testImplementation("org.junit.jupiter:junit-jupiter-api:5.8.1")
+    testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.8.1")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+application {
+    // ./gradlew :core:installDist, then core/build/install/copy2md/bin/copy2md <dir>
+    mainClass.set("com.bf.copy2md.cli.Copy2MdCli")
+    applicationName = "copy2md"
+}
+
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+tasks.jar {
+    manifest {
+        attributes("Main-Class" to application.mainClass.get())
+    }
+}
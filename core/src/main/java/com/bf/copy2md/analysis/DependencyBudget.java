@@ -0,0 +1,108 @@
+package com.bf.copy2md.analysis;
+
+import com.bf.copy2md.util.TokenEstimator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Token budget for a function and its dependencies. Callers walk the call graph level by level
+ * and offer each level's candidates together: the smallest are taken first, so the budget holds
+ * as many close callees as possible, and the chosen ones keep their original order. Once the
+ * budget is spent the walk stops, so callees that could never be printed are not resolved.
+ */
+public final class DependencyBudget {
+    // Heading, file line and code fence around every function
+    private static final int FUNCTION_OVERHEAD_TOKENS = 16;
+    // Below this, no real function fits anymore
+    private static final int MIN_USEFUL_TOKENS = 32;
+
+    private final long limit;
+    private long used;
+    private int skipped;
+
+    private DependencyBudget(long limit) {
+        this.limit = limit;
+    }
+
+    public static DependencyBudget unlimited() {
+        return new DependencyBudget(Long.MAX_VALUE);
+    }
+
+    /**
+     * @param tokens maximum estimated tokens; 0 or less means unlimited
+     */
+    public static DependencyBudget tokens(long tokens) {
+        return tokens > 0 ? new DependencyBudget(tokens) : unlimited();
+    }
+
+    public boolean isUnlimited() {
+        return limit == Long.MAX_VALUE;
+    }
+
+    /**
+     * Charges the analyzed function itself, which is always kept.
+     */
+    public void charge(CharSequence code) {
+        if (!isUnlimited()) {
+            used += cost(code);
+        }
+    }
+
+    /**
+     * Picks the candidates of one call level that still fit, smallest first, and charges them.
+     *
+     * @return the chosen candidates in their original order
+     */
+    public <T> List<T> select(List<T> candidates, Function<T, CharSequence> code) {
+        if (isUnlimited()) {
+            return candidates;
+        }
+        int count = candidates.size();
+        long[] costs = new long[count];
+        List<Integer> bySize = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            costs[i] = cost(code.apply(candidates.get(i)));
+            bySize.add(i);
+        }
+        // Stable, so equal sizes keep their original order
+        bySize.sort(Comparator.comparingLong(i -> costs[i]));
+
+        boolean[] chosen = new boolean[count];
+        for (int i : bySize) {
+            if (used + costs[i] <= limit) {
+                used += costs[i];
+                chosen[i] = true;
+            } else {
+                skipped++;
+            }
+        }
+        List<T> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (chosen[i]) {
+                result.add(candidates.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * True once nothing worth resolving fits anymore; callers stop walking deeper levels.
+     */
+    public boolean isSpent() {
+        return limit - used < MIN_USEFUL_TOKENS;
+    }
+
+    /**
+     * Number of candidates left out because they did not fit.
+     */
+    public int getSkippedCount() {
+        return skipped;
+    }
+
+    private static long cost(CharSequence code) {
+        return TokenEstimator.estimate(code) + FUNCTION_OVERHEAD_TOKENS;
+    }
+}
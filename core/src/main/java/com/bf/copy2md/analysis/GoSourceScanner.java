@@ -0,0 +1,557 @@
+package com.bf.copy2md.analysis;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lexer-level scanner for Go source, so Go functions can be extracted without the Go plugin.
+ * Comments, interpreted, raw and rune literals are skipped exactly; everything else is matched
+ * on tokens and bracket depth. Reports offsets instead of copying text. Has no IDE dependencies.
+ */
+public final class GoSourceScanner {
+    private static final Set<String> KEYWORDS = Set.of(
+            "break", "case", "chan", "const", "continue", "default", "defer", "else", "fallthrough",
+            "for", "func", "go", "goto", "if", "import", "interface", "map", "package", "range",
+            "return", "select", "struct", "switch", "type", "var");
+    // Builtin functions and predeclared types, whose conversions look like calls
+    private static final Set<String> BUILTINS = Set.of(
+            "append", "cap", "clear", "close", "complex", "copy", "delete", "imag", "len", "make",
+            "max", "min", "new", "panic", "print", "println", "real", "recover",
+            "any", "bool", "byte", "comparable", "complex64", "complex128", "error", "float32",
+            "float64", "int", "int8", "int16", "int32", "int64", "rune", "string", "uint", "uint8",
+            "uint16", "uint32", "uint64", "uintptr");
+
+    private GoSourceScanner() {
+    }
+
+    /**
+     * A top-level {@code func} declaration with a body.
+     */
+    public static final class Function {
+        /** Function or method name. */
+        public final String name;
+        /** Receiver base type without pointer or type arguments, null for plain functions. */
+        public final String receiverType;
+        /** Receiver variable name, null if there is no receiver or it is unnamed. */
+        public final String receiverName;
+        /** Start of the doc comment directly above the declaration, or of the declaration. */
+        public final int start;
+        /** Offset of the {@code func} keyword. */
+        public final int declarationStart;
+        /** Offset of the body's opening brace. */
+        public final int bodyStart;
+        /** Offset just after the body's closing brace. */
+        public final int end;
+
+        Function(String name, String receiverType, String receiverName, int start, int declarationStart, int bodyStart, int end) {
+            this.name = name;
+            this.receiverType = receiverType;
+            this.receiverName = receiverName;
+            this.start = start;
+            this.declarationStart = declarationStart;
+            this.bodyStart = bodyStart;
+            this.end = end;
+        }
+    }
+
+    /**
+     * A top-level {@code type} declaration, a single spec or a parenthesized group.
+     */
+    public static final class TypeDeclaration {
+        /** Start of the doc comment directly above the declaration, or of the declaration. */
+        public final int start;
+        /** Offset of the {@code type} keyword. */
+        public final int declarationStart;
+        /** Offset just after the declaration. */
+        public final int end;
+
+        TypeDeclaration(int start, int declarationStart, int end) {
+            this.start = start;
+            this.declarationStart = declarationStart;
+            this.end = end;
+        }
+    }
+
+    /**
+     * A call site {@code name(...)} or {@code qualifier.name(...)}.
+     */
+    public static final class Call {
+        /**
+         * Identifier before the dot, null for an unqualified call, and empty when the call is on
+         * an expression such as {@code f().name()}.
+         */
+        public final String qualifier;
+        public final String name;
+
+        Call(String qualifier, String name) {
+            this.qualifier = qualifier;
+            this.name = name;
+        }
+    }
+
+    /**
+     * @return the name in the {@code package} clause, or null if there is none
+     */
+    public static String packageName(CharSequence text) {
+        int pos = skipTrivia(text, 0, text.length());
+        if (!isWordAt(text, pos, "package")) {
+            return null;
+        }
+        pos = skipTrivia(text, pos + 7, text.length());
+        int end = identifierEnd(text, pos);
+        return end > pos ? text.subSequence(pos, end).toString() : null;
+    }
+
+    /**
+     * Imports of a file by the name they are referred to with: the alias, or the last element of
+     * the import path. Blank and dot imports are left out.
+     */
+    public static Map<String, String> imports(CharSequence text) {
+        Map<String, String> imports = new LinkedHashMap<>();
+        int[] range = importsRange(text);
+        if (range == null) {
+            return imports;
+        }
+        int pos = range[0];
+        String alias = null;
+        while (pos < range[1]) {
+            pos = skipTrivia(text, pos, range[1]);
+            if (pos >= range[1]) {
+                break;
+            }
+            char c = text.charAt(pos);
+            if (c == '"' || c == '`') {
+                int end = skipLiteral(text, pos, range[1]);
+                String path = text.subSequence(pos + 1, Math.max(pos + 1, end - 1)).toString();
+                String name = alias != null ? alias : path.substring(path.lastIndexOf('/') + 1);
+                if (!name.equals("_") && !name.equals(".")) {
+                    imports.put(name, path);
+                }
+                alias = null;
+                pos = end;
+            } else if (isIdentifierStart(c)) {
+                int end = identifierEnd(text, pos);
+                String word = text.subSequence(pos, end).toString();
+                alias = word.equals("import") ? null : word;
+                pos = end;
+            } else {
+                alias = c == '.' || c == '_' ? String.valueOf(c) : null;
+                pos++;
+            }
+        }
+        return imports;
+    }
+
+    /**
+     * @return {@code {start, end}} of the import declarations after the package clause, or null
+     */
+    public static int[] importsRange(CharSequence text) {
+        int length = text.length();
+        int pos = skipTrivia(text, 0, length);
+        if (isWordAt(text, pos, "package")) {
+            pos = identifierEnd(text, skipTrivia(text, pos + 7, length));
+        }
+        int start = -1;
+        int end = -1;
+        while (true) {
+            pos = skipTrivia(text, pos, length);
+            if (!isWordAt(text, pos, "import")) {
+                break;
+            }
+            if (start < 0) {
+                start = pos;
+            }
+            pos = skipTrivia(text, pos + 6, length);
+            if (pos < length && text.charAt(pos) == '(') {
+                pos = skipBracketed(text, pos, length);
+            } else {
+                while (pos < length && text.charAt(pos) != '\n') {
+                    pos = text.charAt(pos) == '"' || text.charAt(pos) == '`' ? skipLiteral(text, pos, length) : pos + 1;
+                }
+            }
+            end = pos;
+        }
+        return start >= 0 ? new int[]{start, end} : null;
+    }
+
+    /**
+     * All top-level functions and methods with a body, in source order.
+     */
+    public static List<Function> scanFunctions(CharSequence text) {
+        List<Function> functions = new ArrayList<>();
+        int length = text.length();
+        int depth = 0;
+        int pos = 0;
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (c == '/' && pos + 1 < length && (text.charAt(pos + 1) == '/' || text.charAt(pos + 1) == '*')) {
+                pos = skipComment(text, pos, length);
+            } else if (c == '"' || c == '`' || c == '\'') {
+                pos = skipLiteral(text, pos, length);
+            } else if (c == '{' || c == '(' || c == '[') {
+                depth++;
+                pos++;
+            } else if (c == '}' || c == ')' || c == ']') {
+                depth = Math.max(0, depth - 1);
+                pos++;
+            } else if (isIdentifierStart(c)) {
+                int end = identifierEnd(text, pos);
+                if (depth == 0 && end - pos == 4 && isWordAt(text, pos, "func")) {
+                    Function function = parseFunction(text, pos);
+                    if (function != null) {
+                        functions.add(function);
+                        pos = function.end;
+                        continue;
+                    }
+                }
+                pos = end;
+            } else {
+                pos++;
+            }
+        }
+        return functions;
+    }
+
+    /**
+     * All top-level type declarations, in source order. Struct and interface bodies are part of
+     * the declaration; types declared inside functions are not reported.
+     */
+    public static List<TypeDeclaration> scanTypes(CharSequence text) {
+        List<TypeDeclaration> types = new ArrayList<>();
+        int length = text.length();
+        int depth = 0;
+        int pos = 0;
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (c == '/' && pos + 1 < length && (text.charAt(pos + 1) == '/' || text.charAt(pos + 1) == '*')) {
+                pos = skipComment(text, pos, length);
+            } else if (c == '"' || c == '`' || c == '\'') {
+                pos = skipLiteral(text, pos, length);
+            } else if (c == '{' || c == '(' || c == '[') {
+                depth++;
+                pos++;
+            } else if (c == '}' || c == ')' || c == ']') {
+                depth = Math.max(0, depth - 1);
+                pos++;
+            } else if (isIdentifierStart(c)) {
+                int end = identifierEnd(text, pos);
+                if (depth == 0 && end - pos == 4 && isWordAt(text, pos, "type")) {
+                    int declarationEnd = typeDeclarationEnd(text, end);
+                    types.add(new TypeDeclaration(docCommentStart(text, pos), pos, declarationEnd));
+                    pos = declarationEnd;
+                    continue;
+                }
+                pos = end;
+            } else {
+                pos++;
+            }
+        }
+        return types;
+    }
+
+    /**
+     * End of the type spec or group following the {@code type} keyword: the closing parenthesis
+     * of a group, otherwise the end of the line the spec's brackets end on. Trailing comments are
+     * not included.
+     */
+    private static int typeDeclarationEnd(CharSequence text, int pos) {
+        int length = text.length();
+        pos = skipBlanks(text, pos, length);
+        if (pos < length && text.charAt(pos) == '(') {
+            return skipBracketed(text, pos, length);
+        }
+        int end = pos;
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (c == '\n' || c == ';' || c == '/' && pos + 1 < length && text.charAt(pos + 1) == '/') {
+                break;
+            }
+            if (c == '/' && pos + 1 < length && text.charAt(pos + 1) == '*') {
+                pos = skipComment(text, pos, length);
+                continue;
+            }
+            if (c == '(' || c == '[' || c == '{') {
+                pos = skipBracketed(text, pos, length);
+            } else if (c == '"' || c == '`' || c == '\'') {
+                pos = skipLiteral(text, pos, length);
+            } else {
+                pos++;
+            }
+            if (!Character.isWhitespace(c)) {
+                end = pos;
+            }
+        }
+        return end;
+    }
+
+    private static Function parseFunction(CharSequence text, int funcStart) {
+        int length = text.length();
+        int pos = skipBlanks(text, funcStart + 4, length);
+        String receiverType = null;
+        String receiverName = null;
+        if (pos < length && text.charAt(pos) == '(') {
+            int close = skipBracketed(text, pos, length);
+            String receiver = text.subSequence(pos + 1, Math.max(pos + 1, close - 1)).toString();
+            int typeArgs = receiver.indexOf('[');
+            if (typeArgs >= 0) {
+                receiver = receiver.substring(0, typeArgs);
+            }
+            String[] parts = receiver.replace('*', ' ').trim().split("\\s+");
+            if (parts.length == 0 || parts[0].isEmpty()) {
+                return null;
+            }
+            receiverType = parts[parts.length - 1];
+            receiverName = parts.length > 1 ? parts[0] : null;
+            pos = skipBlanks(text, close, length);
+        }
+
+        int nameEnd = identifierEnd(text, pos);
+        if (nameEnd == pos) {
+            // Function literal
+            return null;
+        }
+        String name = text.subSequence(pos, nameEnd).toString();
+        pos = skipBlanks(text, nameEnd, length);
+        if (pos < length && text.charAt(pos) == '[') {
+            pos = skipBlanks(text, skipBracketed(text, pos, length), length);
+        }
+        if (pos >= length || text.charAt(pos) != '(') {
+            return null;
+        }
+
+        // The body is the first brace at bracket depth 0 that does not belong to a struct or
+        // interface type in the signature
+        String previousWord = null;
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (c == '/' && pos + 1 < length && (text.charAt(pos + 1) == '/' || text.charAt(pos + 1) == '*')) {
+                if (text.charAt(pos + 1) == '/') {
+                    // A line comment before any body: declaration without body
+                    return null;
+                }
+                pos = skipComment(text, pos, length);
+            } else if (c == '(' || c == '[') {
+                pos = skipBracketed(text, pos, length);
+                previousWord = null;
+            } else if (c == '{') {
+                if ("struct".equals(previousWord) || "interface".equals(previousWord)) {
+                    pos = skipBracketed(text, pos, length);
+                    previousWord = null;
+                    continue;
+                }
+                int end = skipBracketed(text, pos, length);
+                return new Function(name, receiverType, receiverName, docCommentStart(text, funcStart), funcStart, pos, end);
+            } else if (c == '\n' || c == ';') {
+                // Declaration without body, e.g. implemented in assembly
+                return null;
+            } else if (isIdentifierStart(c)) {
+                int end = identifierEnd(text, pos);
+                previousWord = text.subSequence(pos, end).toString();
+                pos = end;
+            } else {
+                pos++;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Calls in {@code [start, end)}, typically a function body, in source order. Keywords,
+     * builtins and conversions to predeclared types are left out.
+     */
+    public static List<Call> scanCalls(CharSequence text, int start, int end) {
+        List<Call> calls = new ArrayList<>();
+        int pos = start;
+        while (pos < end) {
+            char c = text.charAt(pos);
+            if (c == '/' && pos + 1 < end && (text.charAt(pos + 1) == '/' || text.charAt(pos + 1) == '*')) {
+                pos = skipComment(text, pos, end);
+            } else if (c == '"' || c == '`' || c == '\'') {
+                pos = skipLiteral(text, pos, end);
+            } else if (isIdentifierStart(c)) {
+                int nameEnd = identifierEnd(text, pos);
+                int next = skipBlanks(text, nameEnd, end);
+                if (next < end && text.charAt(next) == '(') {
+                    String name = text.subSequence(pos, nameEnd).toString();
+                    String qualifier = qualifierBefore(text, pos, start);
+                    if (qualifier != null || !KEYWORDS.contains(name) && !BUILTINS.contains(name)) {
+                        calls.add(new Call(qualifier, name));
+                    }
+                }
+                pos = nameEnd;
+            } else {
+                pos++;
+            }
+        }
+        return calls;
+    }
+
+    /**
+     * Identifier before the {@code .} preceding {@code nameStart}; empty if the dot follows an
+     * expression, null if there is no dot.
+     */
+    private static String qualifierBefore(CharSequence text, int nameStart, int limit) {
+        int pos = nameStart - 1;
+        while (pos >= limit && Character.isWhitespace(text.charAt(pos))) {
+            pos--;
+        }
+        if (pos < limit || text.charAt(pos) != '.') {
+            return null;
+        }
+        pos--;
+        while (pos >= limit && Character.isWhitespace(text.charAt(pos))) {
+            pos--;
+        }
+        int end = pos + 1;
+        while (pos >= limit && isIdentifierPart(text.charAt(pos))) {
+            pos--;
+        }
+        if (pos + 1 == end || pos >= limit && text.charAt(pos) == '.') {
+            return "";
+        }
+        return text.subSequence(pos + 1, end).toString();
+    }
+
+    private static int docCommentStart(CharSequence text, int declarationStart) {
+        int start = declarationStart;
+        int lineStart = lineStart(text, declarationStart);
+        while (lineStart > 0) {
+            int previous = lineStart(text, lineStart - 1);
+            int first = skipBlanks(text, previous, lineStart);
+            if (first + 1 < lineStart && text.charAt(first) == '/' && text.charAt(first + 1) == '/') {
+                start = previous;
+                lineStart = previous;
+            } else {
+                break;
+            }
+        }
+        return start;
+    }
+
+    private static int lineStart(CharSequence text, int offset) {
+        while (offset > 0 && text.charAt(offset - 1) != '\n') {
+            offset--;
+        }
+        return offset;
+    }
+
+    /**
+     * Offset after the bracket group opened at {@code open}, skipping comments and literals.
+     */
+    private static int skipBracketed(CharSequence text, int open, int limit) {
+        int depth = 0;
+        int pos = open;
+        while (pos < limit) {
+            char c = text.charAt(pos);
+            if (c == '/' && pos + 1 < limit && (text.charAt(pos + 1) == '/' || text.charAt(pos + 1) == '*')) {
+                pos = skipComment(text, pos, limit);
+                continue;
+            }
+            if (c == '"' || c == '`' || c == '\'') {
+                pos = skipLiteral(text, pos, limit);
+                continue;
+            }
+            if (c == '(' || c == '[' || c == '{') {
+                depth++;
+            } else if (c == ')' || c == ']' || c == '}') {
+                if (--depth == 0) {
+                    return pos + 1;
+                }
+            }
+            pos++;
+        }
+        return limit;
+    }
+
+    private static int skipComment(CharSequence text, int pos, int limit) {
+        if (text.charAt(pos + 1) == '/') {
+            while (pos < limit && text.charAt(pos) != '\n') {
+                pos++;
+            }
+            return pos;
+        }
+        pos += 2;
+        while (pos + 1 < limit && !(text.charAt(pos) == '*' && text.charAt(pos + 1) == '/')) {
+            pos++;
+        }
+        return Math.min(limit, pos + 2);
+    }
+
+    /**
+     * Offset after the string, raw string or rune literal starting at {@code pos}.
+     */
+    private static int skipLiteral(CharSequence text, int pos, int limit) {
+        char quote = text.charAt(pos++);
+        while (pos < limit) {
+            char c = text.charAt(pos);
+            if (c == quote) {
+                return pos + 1;
+            }
+            if (quote != '`' && c == '\\') {
+                pos += 2;
+                continue;
+            }
+            if (quote != '`' && c == '\n') {
+                // Unterminated literal: stop at the line end
+                return pos;
+            }
+            pos++;
+        }
+        return limit;
+    }
+
+    private static int skipTrivia(CharSequence text, int pos, int limit) {
+        while (pos < limit) {
+            char c = text.charAt(pos);
+            if (Character.isWhitespace(c) || c == ';') {
+                pos++;
+            } else if (c == '/' && pos + 1 < limit && (text.charAt(pos + 1) == '/' || text.charAt(pos + 1) == '*')) {
+                pos = skipComment(text, pos, limit);
+            } else {
+                break;
+            }
+        }
+        return pos;
+    }
+
+    private static int skipBlanks(CharSequence text, int pos, int limit) {
+        while (pos < limit && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isWordAt(CharSequence text, int offset, String word) {
+        int end = offset + word.length();
+        if (end > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (text.charAt(offset + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return end == text.length() || !isIdentifierPart(text.charAt(end));
+    }
+
+    private static int identifierEnd(CharSequence text, int pos) {
+        if (pos >= text.length() || !isIdentifierStart(text.charAt(pos))) {
+            return pos;
+        }
+        while (pos < text.length() && isIdentifierPart(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
@@ -0,0 +1,486 @@
+package com.bf.copy2md.analysis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Character-level scanner for Python source. Works on any {@link CharSequence} in one pass,
+ * tracking indentation, string and docstring state and bracket depth, and reports offsets
+ * instead of copying lines. Has no IDE dependencies.
+ */
+public final class PythonSourceScanner {
+
+    private PythonSourceScanner() {
+    }
+
+    /**
+     * Locates the first function in {@code text}: its decorators, {@code def}/{@code async def} line
+     * and indented body. Blank lines and comments after the body are not included, and the range is
+     * trimmed like {@link String#trim()}. A stub's trailing {@code -> Type: ...} is cut off.
+     *
+     * @return {@code {start, end}} offsets into {@code text}, or null if there is no function
+     */
+    public static int[] findFunctionRange(CharSequence text) {
+        return findFunctionRange(text, 0);
+    }
+
+    /**
+     * Like {@link #findFunctionRange(CharSequence)}, but for the first function at or after the
+     * line containing {@code from}, e.g. a definition offset from an index. Decorator lines
+     * directly above that line belong to the function and are included.
+     *
+     * @return {@code {start, end}} offsets into {@code text}, or null if there is no function
+     */
+    public static int[] findFunctionRange(CharSequence text, int from) {
+        int length = text.length();
+        int start = -1;
+        int end = -1;
+        int defIndent = -1;
+        boolean seenDef = false;
+        int depth = 0;
+        boolean continuation = false;
+
+        int pos = lineStart(text, Math.min(Math.max(from, 0), length));
+        while (pos > 0) {
+            int previous = lineStart(text, pos - 1);
+            int first = skipBlanks(text, previous);
+            if (first < pos && text.charAt(first) == '@') {
+                pos = previous;
+            } else {
+                break;
+            }
+        }
+        while (pos < length) {
+            int indent = 0;
+            while (pos < length && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) {
+                indent++;
+                pos++;
+            }
+            char first = pos < length ? text.charAt(pos) : '\n';
+            boolean blank = first == '\n' || first == '\r' || first == '#';
+            boolean logicalStart = depth <= 0 && !continuation;
+
+            if (!blank && logicalStart) {
+                boolean def = isDefAt(text, pos);
+                if (start < 0) {
+                    if (def || first == '@') {
+                        start = pos;
+                        defIndent = indent;
+                        seenDef = def;
+                    }
+                } else if (indent <= defIndent) {
+                    if (seenDef || !(def || first == '@')) {
+                        // First statement back at the function's level ends it
+                        break;
+                    }
+                    seenDef = def;
+                } else if (!seenDef && def) {
+                    seenDef = true;
+                }
+            }
+
+            // Rest of the logical line; a string literal may carry it over several physical lines
+            continuation = false;
+            int lastCode = -1;
+            while (pos < length) {
+                char c = text.charAt(pos);
+                if (c == '\n') {
+                    pos++;
+                    break;
+                }
+                if (c == '#') {
+                    while (pos < length && text.charAt(pos) != '\n') {
+                        pos++;
+                    }
+                    continue;
+                }
+                if (c == '"' || c == '\'') {
+                    pos = skipStringLiteral(text, pos);
+                    lastCode = pos - 1;
+                    continue;
+                }
+                if (c == '(' || c == '[' || c == '{') {
+                    depth++;
+                } else if (c == ')' || c == ']' || c == '}') {
+                    depth--;
+                }
+                if (c != ' ' && c != '\t' && c != '\r') {
+                    lastCode = pos;
+                    continuation = c == '\\';
+                }
+                pos++;
+            }
+            if (start >= 0 && lastCode >= 0) {
+                end = lastCode + 1;
+            }
+        }
+
+        if (start < 0) {
+            return null;
+        }
+        end = Math.max(end, start);
+        return new int[]{start, stripStubReturnAnnotation(text, start, end)};
+    }
+
+    /**
+     * Finds the innermost function whose range, as {@link #findFunctionRange(CharSequence, int)}
+     * reports it, contains {@code offset}, by walking back over the lines above it.
+     *
+     * @return offset of the function's {@code def}/{@code async def} line, or -1 if {@code offset}
+     *         is not inside a function
+     */
+    public static int findEnclosingFunction(CharSequence text, int offset) {
+        offset = Math.min(Math.max(offset, 0), text.length());
+        int pos = lineStart(text, offset);
+        while (true) {
+            int first = skipBlanks(text, pos);
+            if (isDefAt(text, first)) {
+                int[] range = findFunctionRange(text, pos);
+                if (range != null && range[0] <= offset && offset <= range[1]) {
+                    return pos;
+                }
+            }
+            if (pos == 0) {
+                return -1;
+            }
+            pos = lineStart(text, pos - 1);
+        }
+    }
+
+    /**
+     * Names called in {@code [start, end)}, in source order and each once: every identifier
+     * followed by {@code (}, including the last name of a dotted call. Strings and comments are
+     * skipped, and names right after {@code def} or {@code class} are definitions, not calls.
+     * Keywords and builtins are not filtered.
+     */
+    public static List<String> scanCalls(CharSequence text, int start, int end) {
+        Set<String> names = new LinkedHashSet<>();
+        boolean afterDefinitionKeyword = false;
+        int pos = start;
+        while (pos < end) {
+            char c = text.charAt(pos);
+            if (c == '#') {
+                while (pos < end && text.charAt(pos) != '\n') {
+                    pos++;
+                }
+            } else if (c == '"' || c == '\'') {
+                pos = Math.min(end, skipStringLiteral(text, pos));
+                afterDefinitionKeyword = false;
+            } else if (Character.isLetter(c) || c == '_') {
+                int nameEnd = pos;
+                while (nameEnd < end && isIdentifierPart(text.charAt(nameEnd))) {
+                    nameEnd++;
+                }
+                if (nameEnd < end && (text.charAt(nameEnd) == '"' || text.charAt(nameEnd) == '\'')
+                        && isStringPrefix(text, pos, nameEnd)) {
+                    pos = Math.min(end, skipStringLiteral(text, nameEnd));
+                    afterDefinitionKeyword = false;
+                    continue;
+                }
+                int next = skipBlanks(text, nameEnd);
+                if (!afterDefinitionKeyword && next < end && text.charAt(next) == '(') {
+                    names.add(text.subSequence(pos, nameEnd).toString());
+                }
+                afterDefinitionKeyword = isWordAt(text, pos, "def") || isWordAt(text, pos, "class");
+                pos = nameEnd;
+            } else {
+                if (!Character.isWhitespace(c)) {
+                    afterDefinitionKeyword = false;
+                }
+                pos++;
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * Maps each function name defined in {@code text} to the offset of its {@code def} or
+     * {@code async def} keyword, at any nesting level. A header only counts as the first token of
+     * a line; strings, docstrings and comments are skipped, so a {@code def} quoted in them is not
+     * a definition. The first definition of a name wins.
+     */
+    public static Map<String, Integer> scanDefinitions(CharSequence text) {
+        Map<String, Integer> definitions = new HashMap<>();
+        int length = text.length();
+        boolean lineStart = true;
+        int pos = 0;
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (c == '\n') {
+                lineStart = true;
+                pos++;
+            } else if (c == ' ' || c == '\t') {
+                pos++;
+            } else if (c == '#') {
+                while (pos < length && text.charAt(pos) != '\n') {
+                    pos++;
+                }
+            } else if (c == '"' || c == '\'') {
+                pos = skipStringLiteral(text, pos);
+                lineStart = false;
+            } else if (Character.isLetter(c) || c == '_') {
+                int nameEnd = identifierEnd(text, pos);
+                if (nameEnd < length && (text.charAt(nameEnd) == '"' || text.charAt(nameEnd) == '\'')
+                        && isStringPrefix(text, pos, nameEnd)) {
+                    pos = skipStringLiteral(text, nameEnd);
+                } else {
+                    int name = lineStart ? defNameStart(text, pos) : -1;
+                    if (name >= 0) {
+                        definitions.putIfAbsent(text.subSequence(name, identifierEnd(text, name)).toString(), pos);
+                    }
+                    pos = nameEnd;
+                }
+                lineStart = false;
+            } else {
+                lineStart = false;
+                pos++;
+            }
+        }
+        return definitions;
+    }
+
+    /**
+     * Name of the function defined or called by {@code text}: the name after {@code def}, or the
+     * last name of a dotted call chain, with string literals ignored.
+     */
+    public static String extractFunctionName(String text) {
+        // 移除字符串内容，避免误判
+        text = stripStringLiterals(text);
+        
+        // 处理方法调用
+        if (text.contains(".")) {
+            String[] parts = text.split("\\.");
+            if (parts.length >= 2) {
+                String prefix = parts[0].trim();
+                // 处理self和super调用
+                if (prefix.equals("self") || prefix.equals("super()")) {
+                    String methodPart = parts[1];
+                    int bracketIndex = methodPart.indexOf('(');
+                    return bracketIndex > 0 ? methodPart.substring(0, bracketIndex).trim() : methodPart.trim();
+                }
+            }
+            // 获取链式调用的最后一个函数名
+            String lastPart = parts[parts.length - 1];
+            int bracketIndex = lastPart.indexOf('(');
+            return bracketIndex > 0 ? lastPart.substring(0, bracketIndex).trim() : lastPart.trim();
+        }
+        
+        // 处理普通函数调用
+        int bracketIndex = text.indexOf('(');
+        if (bracketIndex > 0) {
+            String name = text.substring(0, bracketIndex).trim();
+            // 如果是函数定义，提取def后面的名称
+            if (name.startsWith("def ")) {
+                name = name.substring(4);
+            } else if (name.startsWith("async def ")) {
+                name = name.substring(10);
+            }
+            return name.trim();
+        }
+        
+        return text.trim();
+    }
+
+    /**
+     * Removes every string literal, prefix included ({@code f"..."}, {@code rb'...'}, triple quotes),
+     * from {@code text}. Runs in linear time on any input, including unbalanced quotes.
+     */
+    public static String stripStringLiterals(CharSequence text) {
+        int length = text.length();
+        int firstQuote = 0;
+        while (firstQuote < length && text.charAt(firstQuote) != '"' && text.charAt(firstQuote) != '\'') {
+            firstQuote++;
+        }
+        if (firstQuote == length) {
+            return text.toString();
+        }
+
+        StringBuilder result = new StringBuilder(length);
+        int pos = 0;
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (c == '"' || c == '\'') {
+                pos = skipStringLiteral(text, pos);
+            } else if (isIdentifierPart(c)) {
+                int wordEnd = pos + 1;
+                while (wordEnd < length && isIdentifierPart(text.charAt(wordEnd))) {
+                    wordEnd++;
+                }
+                boolean prefixedLiteral = wordEnd < length
+                        && (text.charAt(wordEnd) == '"' || text.charAt(wordEnd) == '\'')
+                        && isStringPrefix(text, pos, wordEnd);
+                if (prefixedLiteral) {
+                    pos = skipStringLiteral(text, wordEnd);
+                } else {
+                    result.append(text, pos, wordEnd);
+                    pos = wordEnd;
+                }
+            } else {
+                result.append(c);
+                pos++;
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Python string prefixes: any case-insensitive combination of one of r/b/u/f, or rb/br/fr/rf.
+     */
+    private static boolean isStringPrefix(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length == 1) {
+            char c = Character.toLowerCase(text.charAt(start));
+            return c == 'r' || c == 'b' || c == 'u' || c == 'f';
+        }
+        if (length == 2) {
+            char a = Character.toLowerCase(text.charAt(start));
+            char b = Character.toLowerCase(text.charAt(start + 1));
+            return (a == 'r' && (b == 'b' || b == 'f')) || ((a == 'b' || a == 'f') && b == 'r');
+        }
+        return false;
+    }
+
+    /**
+     * @return the offset just past the string literal whose opening quote is at {@code quoteOffset};
+     * handles triple quotes and backslash escapes. An unterminated single-quoted literal ends at the
+     * line break, an unterminated triple-quoted one at the end of the text.
+     */
+    public static int skipStringLiteral(CharSequence text, int quoteOffset) {
+        int length = text.length();
+        char quote = text.charAt(quoteOffset);
+        boolean triple = quoteOffset + 2 < length
+                && text.charAt(quoteOffset + 1) == quote && text.charAt(quoteOffset + 2) == quote;
+        int pos = quoteOffset + (triple ? 3 : 1);
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (c == '\\') {
+                pos += 2;
+                continue;
+            }
+            if (c == quote) {
+                if (!triple) {
+                    return pos + 1;
+                }
+                if (pos + 2 < length && text.charAt(pos + 1) == quote && text.charAt(pos + 2) == quote) {
+                    return pos + 3;
+                }
+            } else if (c == '\n' && !triple) {
+                return pos;
+            }
+            pos++;
+        }
+        return length;
+    }
+
+    /**
+     * Whether a {@code def} or {@code async def} header starts at {@code offset}.
+     */
+    public static boolean isDefAt(CharSequence text, int offset) {
+        return defNameStart(text, offset) >= 0;
+    }
+
+    /**
+     * Name declared by the {@code def} or {@code async def} header on the line at {@code offset}.
+     * Only that header is read, so calls in the function's body never affect the result.
+     *
+     * @return the function name, or null if no header starts there
+     */
+    public static String functionNameAt(CharSequence text, int offset) {
+        int name = defNameStart(text, skipBlanks(text, offset));
+        return name < 0 ? null : text.subSequence(name, identifierEnd(text, name)).toString();
+    }
+
+    private static int defNameStart(CharSequence text, int offset) {
+        if (isWordAt(text, offset, "async")) {
+            offset = skipBlanks(text, offset + 5);
+        }
+        if (!isWordAt(text, offset, "def")) {
+            return -1;
+        }
+        int name = skipBlanks(text, offset + 3);
+        int nameEnd = identifierEnd(text, name);
+        if (nameEnd == name || Character.isDigit(text.charAt(name))) {
+            return -1;
+        }
+        int paren = skipBlanks(text, nameEnd);
+        return paren < text.length() && text.charAt(paren) == '(' ? name : -1;
+    }
+
+    /**
+     * Cuts a trailing {@code -> Type: ...} (a stub's return annotation and ellipsis body) off the range.
+     */
+    private static int stripStubReturnAnnotation(CharSequence text, int start, int end) {
+        int pos = end;
+        if (pos - start < 3 || text.charAt(pos - 1) != '.' || text.charAt(pos - 2) != '.' || text.charAt(pos - 3) != '.') {
+            return end;
+        }
+        pos -= 3;
+        while (pos > start && Character.isWhitespace(text.charAt(pos - 1))) {
+            pos--;
+        }
+        if (pos == start || text.charAt(pos - 1) != ':') {
+            return end;
+        }
+        int colon = pos - 1;
+        // The leftmost "->" with no ':' between it and the colon, and something in between
+        int arrow = -1;
+        for (int i = colon - 1; i > start; i--) {
+            char c = text.charAt(i);
+            if (c == ':') {
+                break;
+            }
+            if (c == '>' && text.charAt(i - 1) == '-' && i + 1 < colon) {
+                arrow = i - 1;
+            }
+        }
+        if (arrow < 0) {
+            return end;
+        }
+        while (arrow > start && Character.isWhitespace(text.charAt(arrow - 1))) {
+            arrow--;
+        }
+        return arrow;
+    }
+
+    private static boolean isWordAt(CharSequence text, int offset, String word) {
+        int end = offset + word.length();
+        if (end > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (text.charAt(offset + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return end == text.length() || !isIdentifierPart(text.charAt(end));
+    }
+
+    private static int lineStart(CharSequence text, int offset) {
+        while (offset > 0 && text.charAt(offset - 1) != '\n') {
+            offset--;
+        }
+        return offset;
+    }
+
+    private static int skipBlanks(CharSequence text, int offset) {
+        while (offset < text.length() && (text.charAt(offset) == ' ' || text.charAt(offset) == '\t')) {
+            offset++;
+        }
+        return offset;
+    }
+
+    private static int identifierEnd(CharSequence text, int offset) {
+        while (offset < text.length() && isIdentifierPart(text.charAt(offset))) {
+            offset++;
+        }
+        return offset;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
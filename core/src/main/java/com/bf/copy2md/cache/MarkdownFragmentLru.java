@@ -0,0 +1,106 @@
+package com.bf.copy2md.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Formatted Markdown fragments keyed by file and modification stamp, evicted in LRU order once
+ * the fragments together exceed a size budget in chars. Not thread-safe; the plugin's
+ * {@code MarkdownFragmentCache} synchronizes around it and drops entries when files change.
+ *
+ * @param <K> the file handle
+ */
+public final class MarkdownFragmentLru<K> {
+    private final long maxCachedChars;
+    private final long maxEntryChars;
+    private final Map<K, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedChars;
+
+    /**
+     * A cached fragment with the hash and length of the content it was rendered from.
+     */
+    public static final class Entry {
+        final long stamp;
+        final String fragment;
+        final long contentHash;
+        final int contentLength;
+
+        Entry(long stamp, String fragment, long contentHash, int contentLength) {
+            this.stamp = stamp;
+            this.fragment = fragment;
+            this.contentHash = contentHash;
+            this.contentLength = contentLength;
+        }
+
+        public String getFragment() {
+            return fragment;
+        }
+
+        public long getContentHash() {
+            return contentHash;
+        }
+
+        public int getContentLength() {
+            return contentLength;
+        }
+    }
+
+    /**
+     * @param maxCachedChars budget for all fragments together
+     * @param maxEntryChars  larger fragments are not cached, so one file cannot flush the rest
+     */
+    public MarkdownFragmentLru(long maxCachedChars, long maxEntryChars) {
+        this.maxCachedChars = maxCachedChars;
+        this.maxEntryChars = maxEntryChars;
+    }
+
+    public boolean isCacheable(long fragmentLength) {
+        return fragmentLength <= maxEntryChars;
+    }
+
+    /**
+     * @return the entry for {@code key}, or null if there is none or it was cached for another stamp
+     */
+    public Entry get(K key, long stamp) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.stamp == stamp ? entry : null;
+    }
+
+    public void put(K key, long stamp, String fragment, long contentHash, int contentLength) {
+        if (!isCacheable(fragment.length())) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(stamp, fragment, contentHash, contentLength));
+        if (previous != null) {
+            cachedChars -= previous.fragment.length();
+        }
+        cachedChars += fragment.length();
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (cachedChars > maxCachedChars && eldest.hasNext()) {
+            cachedChars -= eldest.next().fragment.length();
+            eldest.remove();
+        }
+    }
+
+    public void invalidate(K key) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            cachedChars -= removed.fragment.length();
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        cachedChars = 0;
+    }
+
+    /** Length of all cached fragments together. */
+    public long getCachedChars() {
+        return cachedChars;
+    }
+}
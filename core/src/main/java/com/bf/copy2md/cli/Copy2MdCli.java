@@ -0,0 +1,164 @@
+package com.bf.copy2md.cli;
+
+import com.bf.copy2md.ignore.IgnoreMatcher;
+import com.bf.copy2md.ignore.IgnoreRules;
+
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Headless entry point: renders a directory as the same Markdown the plugin copies, to stdout
+ * or to a file, without an IDE. Meant for CI jobs and scripted LLM workflows.
+ *
+ * <pre>
+ * copy2md [-o output.md] [--max-file-size KB] [--window KB] [--threads N]
+ *         [--ignore PATTERN]... [--no-gitignore] [--no-dedup] directory
+ * </pre>
+ */
+public final class Copy2MdCli {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int DEFAULT_MAX_FILE_SIZE_KB = 1024;
+    private static final int DEFAULT_WINDOW_KB = 64;
+
+    private Copy2MdCli() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            System.exit(run(args));
+        } catch (IllegalArgumentException e) {
+            System.err.println("copy2md: " + e.getMessage());
+            printUsage();
+            System.exit(2);
+        }
+    }
+
+    static int run(String[] args) {
+        Path root = null;
+        Path output = null;
+        int maxFileSizeKb = DEFAULT_MAX_FILE_SIZE_KB;
+        int windowKb = DEFAULT_WINDOW_KB;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        List<String> ignorePatterns = new ArrayList<>();
+        boolean respectGitignore = true;
+        boolean deduplicate = true;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-o", "--output" -> output = Paths.get(value(args, ++i, arg));
+                case "--max-file-size" -> maxFileSizeKb = positive(value(args, ++i, arg), arg);
+                case "--window" -> windowKb = positive(value(args, ++i, arg), arg);
+                case "--threads" -> threads = positive(value(args, ++i, arg), arg);
+                case "--ignore" -> ignorePatterns.add(value(args, ++i, arg));
+                case "--no-gitignore" -> respectGitignore = false;
+                case "--no-dedup" -> deduplicate = false;
+                case "-h", "--help" -> {
+                    printUsage();
+                    return 0;
+                }
+                default -> {
+                    if (arg.startsWith("-") || root != null) {
+                        throw new IllegalArgumentException("unexpected argument: " + arg);
+                    }
+                    root = Paths.get(arg);
+                }
+            }
+        }
+        if (root == null) {
+            throw new IllegalArgumentException("no directory given");
+        }
+        if (!Files.isDirectory(root)) {
+            throw new IllegalArgumentException("not a directory: " + root);
+        }
+
+        root = root.toAbsolutePath().normalize();
+        TreeRenderer renderer = new TreeRenderer(root, new SourceReader(maxFileSizeKb * 1024L, windowKb * 1024),
+                threads, IgnoreMatcher.of(IgnoreRules.of(ignorePatterns)), respectGitignore, deduplicate, output);
+        long start = System.nanoTime();
+        try (Writer out = openOutput(output)) {
+            renderer.render(out);
+        } catch (IOException e) {
+            System.err.println("copy2md: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 130;
+        }
+
+        report("Skipped binary file(s)", renderer.getBinaryFiles());
+        report("Error reading file(s)", renderer.getFailedFiles());
+        if (output != null) {
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            int written = renderer.getFileCount() - renderer.getBinaryFiles().size() - renderer.getFailedFiles().size();
+            System.err.println("Exported " + written + " file(s) to " + output
+                    + (renderer.getDuplicateCount() > 0 ? ", " + renderer.getDuplicateCount() + " duplicate(s) as references" : "")
+                    + " in " + elapsedMillis + " ms");
+        }
+        return renderer.getFailedFiles().isEmpty() ? 0 : 1;
+    }
+
+    private static Writer openOutput(Path output) throws IOException {
+        if (output == null) {
+            return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out),
+                    StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+        FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE), BUFFER_SIZE);
+    }
+
+    private static void report(String message, List<String> files) {
+        if (files.isEmpty()) {
+            return;
+        }
+        System.err.println(message + ":");
+        for (String file : files) {
+            System.err.println("  " + file);
+        }
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("missing value for " + option);
+        }
+        return args[index];
+    }
+
+    private static int positive(String value, String option) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException(option + " expects a positive number, got " + value);
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: copy2md [-o output.md] [--max-file-size KB] [--window KB] [--threads N]");
+        System.err.println("               [--ignore PATTERN]... [--no-gitignore] [--no-dedup] directory");
+        System.err.println("  -o, --output       write to a file instead of stdout");
+        System.err.println("  --max-file-size    files larger than this are cut to head and tail windows (default "
+                + DEFAULT_MAX_FILE_SIZE_KB + ")");
+        System.err.println("  --window           size of each window for large files (default " + DEFAULT_WINDOW_KB + ")");
+        System.err.println("  --threads          reader threads (default: number of CPUs)");
+        System.err.println("  --ignore           gitignore-style pattern to leave out, may be repeated");
+        System.err.println("  --no-gitignore     do not read .gitignore files");
+        System.err.println("  --no-dedup         write files with identical content in full instead of as references");
+    }
+}
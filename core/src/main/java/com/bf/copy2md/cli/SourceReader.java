@@ -0,0 +1,122 @@
+package com.bf.copy2md.cli;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads source files for the command line. Small files are read with one bulk read, larger ones
+ * are memory-mapped, and both are decoded as UTF-8 straight into a {@link CharBuffer} that is
+ * appended without another copy. Binary files are detected from the bytes already read, and
+ * files above the size limit are reduced to a head and a tail window cut at line boundaries,
+ * like the plugin does.
+ */
+final class SourceReader {
+    private static final int SNIFF_BYTES = 8 * 1024;
+    // Below this, mapping costs more than it saves
+    private static final int MAP_THRESHOLD = 64 * 1024;
+
+    private final long maxBytes;
+    private final int windowBytes;
+
+    SourceReader(long maxBytes, int windowBytes) {
+        this.maxBytes = maxBytes;
+        this.windowBytes = (int) Math.min(windowBytes, maxBytes / 2);
+    }
+
+    /**
+     * @return the file text, or null if the file looks binary
+     */
+    CharSequence read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= maxBytes) {
+                ByteBuffer bytes = bytes(channel, 0, size);
+                return isBinary(bytes) ? null : decode(bytes);
+            }
+
+            ByteBuffer head = bytes(channel, 0, windowBytes);
+            if (isBinary(head)) {
+                return null;
+            }
+            CharBuffer headText = decode(head);
+            CharBuffer tailText = decode(bytes(channel, size - windowBytes, windowBytes));
+            int headEnd = lastLineEnd(headText);
+            int tailStart = firstLineStart(tailText);
+            long omitted = size - 2L * windowBytes + (headText.length() - headEnd) + tailStart;
+
+            StringBuilder result = new StringBuilder(headEnd + tailText.length() - tailStart + 64);
+            result.append(headText, 0, headEnd);
+            result.append("\n... [").append(formatSize(omitted)).append(" omitted] ...\n\n");
+            result.append(tailText, tailStart, tailText.length());
+            return result;
+        }
+    }
+
+    private static ByteBuffer bytes(FileChannel channel, long position, long length) throws IOException {
+        if (length >= MAP_THRESHOLD) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) >= 0) {
+            // keep reading until the buffer is full or the file ends
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static boolean isBinary(ByteBuffer bytes) {
+        int limit = Math.min(bytes.limit(), SNIFF_BYTES);
+        for (int i = 0; i < limit; i++) {
+            if (bytes.get(i) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static CharBuffer decode(ByteBuffer bytes) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        return decoder.decode(bytes);
+    }
+
+    private static int lastLineEnd(CharSequence text) {
+        for (int i = text.length() - 1; i >= 0; i--) {
+            if (text.charAt(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return text.length();
+    }
+
+    private static int firstLineStart(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    static String formatSize(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        String[] units = {"KB", "MB", "GB"};
+        double value = bytes;
+        int unit = -1;
+        while (value >= 1024 && unit < units.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return String.format(java.util.Locale.ROOT, "%.1f %s", value, units[unit]);
+    }
+}
@@ -0,0 +1,209 @@
+package com.bf.copy2md.cli;
+
+import com.bf.copy2md.formatter.DuplicateIndex;
+import com.bf.copy2md.formatter.MarkdownFragment;
+import com.bf.copy2md.ignore.IgnoreMatcher;
+import com.bf.copy2md.util.ContentHash;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Renders every file under a directory as one Markdown document. Files are read on a fixed pool
+ * of workers while a single writer appends them in path order, with a bounded read-ahead window
+ * so memory stays flat however large the tree is. Files whose content was already written are
+ * replaced by a reference to the first copy. Same pipeline as the plugin's copy task.
+ */
+final class TreeRenderer {
+    private final Path root;
+    private final SourceReader reader;
+    private final int workers;
+    private final IgnoreMatcher ignoreMatcher;
+    private final boolean respectGitignore;
+    private final DuplicateIndex duplicates;
+    private final Path outputFile;
+    private final List<String> binaryFiles = new ArrayList<>();
+    private final List<String> failedFiles = new ArrayList<>();
+    private int fileCount;
+
+    /**
+     * @param deduplicate write files with already written content as a reference to the first one
+     * @param outputFile  file the document is written to, left out of it; null when writing to stdout
+     */
+    TreeRenderer(Path root, SourceReader reader, int workers, IgnoreMatcher ignoreMatcher, boolean respectGitignore,
+                 boolean deduplicate, Path outputFile) {
+        this.root = root;
+        this.reader = reader;
+        this.workers = workers;
+        this.ignoreMatcher = ignoreMatcher;
+        this.respectGitignore = respectGitignore;
+        this.duplicates = deduplicate ? new DuplicateIndex() : null;
+        this.outputFile = outputFile != null ? outputFile.toAbsolutePath().normalize() : null;
+    }
+
+    /**
+     * A file's text with the hash of it, computed by the worker that read it.
+     */
+    private static final class Read {
+        final CharSequence content;
+        final long contentHash;
+
+        Read(CharSequence content, long contentHash) {
+            this.content = content;
+            this.contentHash = contentHash;
+        }
+    }
+
+    void render(Writer out) throws IOException, InterruptedException {
+        List<Path> files = collectFiles();
+        fileCount = files.size();
+
+        Path name = root.getFileName();
+        out.write(MarkdownFragment.projectHeader(name != null ? name.toString() : root.toString()));
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "copy2md-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int readAhead = workers * 4;
+        Deque<Future<Read>> pending = new ArrayDeque<>();
+        int submitted = 0;
+        try {
+            for (Path file : files) {
+                while (submitted < files.size() && pending.size() < readAhead) {
+                    Path next = files.get(submitted++);
+                    pending.add(executor.submit(() -> read(next)));
+                }
+
+                String relativePath = root.relativize(file).toString();
+                Read read;
+                try {
+                    read = pending.poll().get();
+                } catch (ExecutionException e) {
+                    failedFiles.add(relativePath + " (" + e.getCause().getMessage() + ")");
+                    continue;
+                }
+                if (read == null) {
+                    binaryFiles.add(relativePath);
+                    continue;
+                }
+                String first = duplicates != null
+                        ? duplicates.firstWith(read.contentHash, read.content.length(), relativePath) : null;
+                if (first != null) {
+                    MarkdownFragment.appendReference(out, relativePath, first);
+                } else {
+                    MarkdownFragment.append(out, relativePath, extension(file), read.content);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        out.flush();
+    }
+
+    private Read read(Path file) throws IOException {
+        CharSequence content = reader.read(file);
+        if (content == null) {
+            return null;
+        }
+        return new Read(content, duplicates != null ? ContentHash.hash(content) : 0);
+    }
+
+    /**
+     * Regular files under the root, sorted by path so the output is reproducible. Ignored
+     * directories are pruned before they are entered, and {@code .git} is never entered. Other
+     * dot-directories such as {@code .github} are walked like any other, so the ignore rules
+     * decide about them as they do in the IDE. The output file is left out, since it is being written
+     * while the tree is read.
+     */
+    private List<Path> collectFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        Deque<IgnoreMatcher> matchers = new ArrayDeque<>();
+        matchers.push(ignoreMatcher);
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                IgnoreMatcher matcher = matchers.peek();
+                if (!dir.equals(root)) {
+                    Path name = dir.getFileName();
+                    if (name != null && name.toString().equals(".git")
+                            || matcher.isIgnored(relativePath(dir), true)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                }
+                Path gitignore = dir.resolve(".gitignore");
+                if (respectGitignore && Files.isRegularFile(gitignore)) {
+                    matcher = matcher.withGitignore(relativePath(dir), Files.readString(gitignore, StandardCharsets.UTF_8));
+                }
+                matchers.push(matcher);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                matchers.pop();
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && !file.equals(outputFile)
+                        && !matchers.peek().isIgnored(relativePath(file), false)) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                failedFiles.add(root.relativize(file) + " (" + e.getMessage() + ")");
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        files.sort(Comparator.comparing(Path::toString));
+        return files;
+    }
+
+    private String relativePath(Path path) {
+        String relative = root.relativize(path).toString();
+        return path.getFileSystem().getSeparator().equals("/") ? relative : relative.replace('\\', '/');
+    }
+
+    private static String extension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot + 1) : null;
+    }
+
+    int getFileCount() {
+        return fileCount;
+    }
+
+    int getDuplicateCount() {
+        return duplicates != null ? duplicates.getDuplicateCount() : 0;
+    }
+
+    List<String> getBinaryFiles() {
+        return binaryFiles;
+    }
+
+    List<String> getFailedFiles() {
+        return failedFiles;
+    }
+}
@@ -0,0 +1,38 @@
+package com.bf.copy2md.formatter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers the content hash of every file written to one document, so a later file with the
+ * same content can be written as a reference to the first one instead of a second code block.
+ * Files shorter than {@link #MIN_CHARS} are always written out, since their reference would not
+ * be much shorter. Not thread-safe; meant for the single writer of a document.
+ */
+public final class DuplicateIndex {
+    public static final int MIN_CHARS = 256;
+
+    private final Map<Long, String> firstPaths = new HashMap<>();
+    private int duplicateCount;
+
+    /**
+     * @param contentHash   {@link com.bf.copy2md.util.ContentHash} of the file's content
+     * @param contentLength length of the content in chars
+     * @return path of an earlier file with the same content, or null if this is the first one,
+     * in which case {@code relativePath} is remembered for later files
+     */
+    public String firstWith(long contentHash, long contentLength, String relativePath) {
+        if (contentLength < MIN_CHARS) {
+            return null;
+        }
+        String first = firstPaths.putIfAbsent(contentHash, relativePath);
+        if (first != null) {
+            duplicateCount++;
+        }
+        return first;
+    }
+
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+}
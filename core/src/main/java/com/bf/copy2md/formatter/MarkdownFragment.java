@@ -0,0 +1,68 @@
+package com.bf.copy2md.formatter;
+
+import java.io.IOException;
+
+/**
+ * The Markdown layout of one file, shared by the IDE plugin and the command line. Works on plain
+ * paths and text only, so it has no IDE dependencies.
+ */
+public final class MarkdownFragment {
+    // Header, fence and separator characters added around the content of every file
+    private static final int OVERHEAD = 32;
+
+    private MarkdownFragment() {
+    }
+
+    public static void append(Appendable out, String relativePath, String fileExtension, CharSequence content) throws IOException {
+        appendOpening(out, relativePath, fileExtension);
+        out.append(content);
+        appendClosing(out);
+    }
+
+    /**
+     * Heading and opening fence of a file, for callers that write the content themselves.
+     */
+    public static void appendOpening(Appendable out, String relativePath, String fileExtension) throws IOException {
+        appendHeading(out, relativePath);
+
+        // Add code block with language
+        out.append("```").append(fileExtension != null ? fileExtension : "").append("\n");
+    }
+
+    /**
+     * Ends the code block opened by {@link #appendOpening}.
+     */
+    public static void appendClosing(Appendable out) throws IOException {
+        out.append("\n");
+        out.append("```\n\n");
+    }
+
+    /**
+     * Stands in for a file whose content was already written for {@code firstPath}.
+     */
+    public static void appendReference(Appendable out, String relativePath, String firstPath) throws IOException {
+        appendHeading(out, relativePath);
+        out.append("Same content as `").append(firstPath).append("` above.\n\n");
+    }
+
+    /**
+     * Just the heading of a file, for entries without content such as files with no outline.
+     */
+    public static void appendHeading(Appendable out, String relativePath) throws IOException {
+        out.append("## File: ").append(relativePath).append("\n\n");
+    }
+
+    /**
+     * Capacity hint for a fragment, so buffers can be allocated once at the right size.
+     */
+    public static int estimateSize(String relativePath, long contentLength) {
+        return (int) Math.min(Integer.MAX_VALUE - 8, contentLength + relativePath.length() + OVERHEAD);
+    }
+
+    /**
+     * Header line of a whole document.
+     */
+    public static String projectHeader(String projectName) {
+        return "# Project Name: " + projectName + "\n\n";
+    }
+}
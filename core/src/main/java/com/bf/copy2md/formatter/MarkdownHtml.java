@@ -0,0 +1,109 @@
+package com.bf.copy2md.formatter;
+
+/**
+ * Renders the Markdown this plugin produces as HTML, for paste targets that only take rich
+ * text. Only the constructs {@link MarkdownFragment} writes are handled: ATX headings, fenced
+ * code blocks and plain lines; everything else is escaped and passed through as text.
+ */
+public final class MarkdownHtml {
+    private MarkdownHtml() {
+    }
+
+    public static String render(CharSequence markdown) {
+        StringBuilder html = new StringBuilder(markdown.length() + markdown.length() / 8 + 64);
+        html.append("<html><body>\n");
+        String fence = null;
+        boolean paragraph = false;
+        int length = markdown.length();
+        for (int start = 0; start < length; ) {
+            int end = start;
+            while (end < length && markdown.charAt(end) != '\n') {
+                end++;
+            }
+            CharSequence line = markdown.subSequence(start, end);
+            start = end + 1;
+
+            if (fence != null) {
+                if (isFence(line) && line.toString().trim().equals(fence)) {
+                    html.append("</code></pre>\n");
+                    fence = null;
+                } else {
+                    escape(html, line).append('\n');
+                }
+                continue;
+            }
+            if (isFence(line)) {
+                paragraph = closeParagraph(html, paragraph);
+                String trimmed = line.toString().trim();
+                int ticks = 0;
+                while (ticks < trimmed.length() && trimmed.charAt(ticks) == '`') {
+                    ticks++;
+                }
+                fence = trimmed.substring(0, ticks);
+                String language = trimmed.substring(ticks).trim();
+                html.append("<pre><code");
+                if (!language.isEmpty()) {
+                    escape(html.append(" class=\"language-"), language).append('"');
+                }
+                html.append('>');
+                continue;
+            }
+
+            int level = headingLevel(line);
+            if (level > 0) {
+                paragraph = closeParagraph(html, paragraph);
+                html.append("<h").append(level).append('>');
+                escape(html, line.subSequence(level, line.length()).toString().trim());
+                html.append("</h").append(level).append(">\n");
+            } else if (line.toString().isBlank()) {
+                paragraph = closeParagraph(html, paragraph);
+            } else {
+                html.append(paragraph ? "<br>\n" : "<p>");
+                escape(html, line);
+                paragraph = true;
+            }
+        }
+        if (fence != null) {
+            html.append("</code></pre>\n");
+        }
+        closeParagraph(html, paragraph);
+        return html.append("</body></html>\n").toString();
+    }
+
+    private static boolean isFence(CharSequence line) {
+        int i = 0;
+        while (i < line.length() && i < 3 && line.charAt(i) == ' ') {
+            i++;
+        }
+        return line.length() - i >= 3 && line.charAt(i) == '`' && line.charAt(i + 1) == '`' && line.charAt(i + 2) == '`';
+    }
+
+    private static int headingLevel(CharSequence line) {
+        int level = 0;
+        while (level < line.length() && level < 7 && line.charAt(level) == '#') {
+            level++;
+        }
+        return level > 0 && level <= 6 && level < line.length() && line.charAt(level) == ' ' ? level : 0;
+    }
+
+    private static boolean closeParagraph(StringBuilder html, boolean paragraph) {
+        if (paragraph) {
+            html.append("</p>\n");
+        }
+        return false;
+    }
+
+    private static StringBuilder escape(StringBuilder html, CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> html.append("&lt;");
+                case '>' -> html.append("&gt;");
+                case '&' -> html.append("&amp;");
+                case '"' -> html.append("&quot;");
+                default -> html.append(c);
+            }
+        }
+        return html;
+    }
+}
@@ -0,0 +1,145 @@
+package com.bf.copy2md.ignore;
+
+/**
+ * A single path segment pattern with {@code *}, {@code ?}, {@code [a-z]}/{@code [!a-z]} classes
+ * and backslash escapes, compiled once into tokens. Never matches across a {@code /}.
+ */
+final class GlobSegment {
+    private static final byte LITERAL = 0;
+    private static final byte ANY = 1;
+    private static final byte STAR = 2;
+    private static final byte CLASS = 3;
+
+    private final byte[] kinds;
+    private final char[] chars;
+    // For CLASS tokens: inclusive ranges as pairs, and whether the class is negated
+    private final char[][] ranges;
+    private final boolean[] negated;
+    private final int length;
+
+    private GlobSegment(String pattern) {
+        int n = pattern.length();
+        kinds = new byte[n];
+        chars = new char[n];
+        ranges = new char[n][];
+        negated = new boolean[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < n) {
+                kinds[count] = LITERAL;
+                chars[count++] = pattern.charAt(++i);
+            } else if (c == '?') {
+                kinds[count++] = ANY;
+            } else if (c == '*') {
+                // Consecutive stars are one star within a segment
+                if (count == 0 || kinds[count - 1] != STAR) {
+                    kinds[count++] = STAR;
+                }
+            } else if (c == '[' && classEnd(pattern, i) > 0) {
+                int end = classEnd(pattern, i);
+                int pos = i + 1;
+                boolean negate = pattern.charAt(pos) == '!' || pattern.charAt(pos) == '^';
+                if (negate) {
+                    pos++;
+                }
+                StringBuilder pairs = new StringBuilder();
+                while (pos < end) {
+                    char from = pattern.charAt(pos);
+                    if (pos + 2 < end && pattern.charAt(pos + 1) == '-') {
+                        pairs.append(from).append(pattern.charAt(pos + 2));
+                        pos += 3;
+                    } else {
+                        pairs.append(from).append(from);
+                        pos++;
+                    }
+                }
+                kinds[count] = CLASS;
+                ranges[count] = pairs.toString().toCharArray();
+                negated[count++] = negate;
+                i = end;
+            } else {
+                kinds[count] = LITERAL;
+                chars[count++] = c;
+            }
+        }
+        length = count;
+    }
+
+    static GlobSegment compile(String pattern) {
+        return new GlobSegment(pattern);
+    }
+
+    /**
+     * True if {@code segment} needs glob matching, false if it only matches itself.
+     */
+    static boolean hasWildcards(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Offset of the {@code ]} closing the class opened at {@code start}, or -1 if it is unclosed.
+     * A {@code ]} right after the opening bracket (or its negation) is a literal member.
+     */
+    private static int classEnd(String pattern, int start) {
+        int pos = start + 1;
+        if (pos < pattern.length() && (pattern.charAt(pos) == '!' || pattern.charAt(pos) == '^')) {
+            pos++;
+        }
+        if (pos < pattern.length() && pattern.charAt(pos) == ']') {
+            pos++;
+        }
+        return pattern.indexOf(']', pos);
+    }
+
+    boolean matches(CharSequence text, int start, int end) {
+        int token = 0;
+        int pos = start;
+        int starToken = -1;
+        int starPos = -1;
+        while (pos < end) {
+            if (token < length && kinds[token] == STAR) {
+                starToken = token++;
+                starPos = pos;
+            } else if (token < length && matchesOne(token, text.charAt(pos))) {
+                token++;
+                pos++;
+            } else if (starToken >= 0) {
+                // Let the last star swallow one more character and retry
+                token = starToken + 1;
+                pos = ++starPos;
+            } else {
+                return false;
+            }
+        }
+        while (token < length && kinds[token] == STAR) {
+            token++;
+        }
+        return token == length;
+    }
+
+    private boolean matchesOne(int token, char c) {
+        switch (kinds[token]) {
+            case LITERAL:
+                return chars[token] == c;
+            case ANY:
+                return true;
+            case CLASS:
+                char[] pairs = ranges[token];
+                for (int i = 0; i < pairs.length; i += 2) {
+                    if (c >= pairs[i] && c <= pairs[i + 1]) {
+                        return !negated[token];
+                    }
+                }
+                return negated[token];
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.bf.copy2md.ignore;
+
+/**
+ * Ignore rules in effect at one point of a tree walk: the user's patterns, which always win,
+ * then the {@code .gitignore} files from the innermost directory outwards. Instances are
+ * immutable; a walk derives a new one when it enters a directory with its own {@code .gitignore}
+ * and drops it when it leaves, so each file is compiled exactly once.
+ * <p>
+ * All paths are {@code /}-separated and relative to the root the walk started from.
+ */
+public final class IgnoreMatcher {
+    public static final IgnoreMatcher NONE = new IgnoreMatcher(IgnoreRules.EMPTY, null, "", IgnoreRules.EMPTY);
+
+    private final IgnoreRules overrides;
+    private final IgnoreMatcher parent;
+    private final String basePath;
+    private final IgnoreRules rules;
+
+    private IgnoreMatcher(IgnoreRules overrides, IgnoreMatcher parent, String basePath, IgnoreRules rules) {
+        this.overrides = overrides;
+        this.parent = parent;
+        this.basePath = basePath;
+        this.rules = rules;
+    }
+
+    /**
+     * @param userRules patterns matched against the path from the walk root, ahead of any
+     *                  {@code .gitignore}
+     */
+    public static IgnoreMatcher of(IgnoreRules userRules) {
+        return new IgnoreMatcher(userRules, null, "", IgnoreRules.EMPTY);
+    }
+
+    /**
+     * Adds the rules of a {@code .gitignore} found in {@code directoryPath} (empty for the root).
+     */
+    public IgnoreMatcher withGitignore(String directoryPath, CharSequence gitignoreText) {
+        IgnoreRules parsed = IgnoreRules.parse(gitignoreText);
+        if (parsed.isEmpty()) {
+            return this;
+        }
+        return new IgnoreMatcher(overrides, this, directoryPath, parsed);
+    }
+
+    public boolean isIgnored(String relativePath, boolean directory) {
+        IgnoreRules.Verdict verdict = overrides.match(relativePath, directory);
+        if (verdict != IgnoreRules.Verdict.NONE) {
+            return verdict == IgnoreRules.Verdict.IGNORE;
+        }
+        for (IgnoreMatcher level = this; level != null; level = level.parent) {
+            if (level.rules.isEmpty()) {
+                continue;
+            }
+            String localPath = level.localPath(relativePath);
+            if (localPath == null) {
+                continue;
+            }
+            verdict = level.rules.match(localPath, directory);
+            if (verdict != IgnoreRules.Verdict.NONE) {
+                return verdict == IgnoreRules.Verdict.IGNORE;
+            }
+        }
+        return false;
+    }
+
+    private String localPath(String relativePath) {
+        if (basePath.isEmpty()) {
+            return relativePath;
+        }
+        if (relativePath.length() > basePath.length() && relativePath.startsWith(basePath)
+                && relativePath.charAt(basePath.length()) == '/') {
+            return relativePath.substring(basePath.length() + 1);
+        }
+        return null;
+    }
+}
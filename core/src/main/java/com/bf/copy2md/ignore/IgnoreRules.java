@@ -0,0 +1,249 @@
+package com.bf.copy2md.ignore;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One list of gitignore-style rules, compiled once into an automaton over path segments.
+ * Literal segments are trie edges looked up by hash, wildcard segments are precompiled
+ * {@link GlobSegment}s, and {@code **} is a node that loops on any segment. Matching a path
+ * walks it segment by segment over the small set of live nodes, so its cost depends on the
+ * path depth, not on the number of rules.
+ * <p>
+ * Supported syntax: comments, {@code !} negation (the last matching rule wins), trailing
+ * {@code /} for directories only, a leading or inner {@code /} to anchor a pattern to the base
+ * directory, {@code *}, {@code ?}, {@code [...]} and {@code **}.
+ */
+public final class IgnoreRules {
+    public static final IgnoreRules EMPTY = new IgnoreRules();
+
+    public enum Verdict {
+        /** No rule matches the path. */
+        NONE,
+        /** The last matching rule excludes the path. */
+        IGNORE,
+        /** The last matching rule is a negation that re-includes the path. */
+        INCLUDE
+    }
+
+    private final Node root = new Node();
+    private final BitSet negatedRules = new BitSet();
+    private int ruleCount;
+
+    private static final class Node {
+        Map<String, Node> literals;
+        Map<String, GlobEdge> globs;
+        // Child reached through a '**' segment; it loops on every segment
+        Node anyDepth;
+        boolean loops;
+        // Highest rule ending here that matches anything, and one that only matches directories
+        int anyRule = -1;
+        int directoryRule = -1;
+    }
+
+    private static final class GlobEdge {
+        final GlobSegment glob;
+        final Node target = new Node();
+
+        GlobEdge(GlobSegment glob) {
+            this.glob = glob;
+        }
+    }
+
+    private IgnoreRules() {
+    }
+
+    /**
+     * Compiles the lines of a {@code .gitignore} file, or any newline-separated pattern list.
+     */
+    public static IgnoreRules parse(CharSequence text) {
+        IgnoreRules rules = new IgnoreRules();
+        int length = text.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && text.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            rules.addLine(text.subSequence(lineStart, lineEnd).toString());
+            lineStart = lineEnd + 1;
+        }
+        return rules;
+    }
+
+    public static IgnoreRules of(List<String> patterns) {
+        IgnoreRules rules = new IgnoreRules();
+        for (String pattern : patterns) {
+            rules.addLine(pattern);
+        }
+        return rules;
+    }
+
+    public boolean isEmpty() {
+        return ruleCount == 0;
+    }
+
+    private void addLine(String line) {
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\r') {
+            end--;
+        }
+        // Trailing spaces are ignored unless escaped
+        while (end > 0 && line.charAt(end - 1) == ' ' && !(end > 1 && line.charAt(end - 2) == '\\')) {
+            end--;
+        }
+        String pattern = line.substring(0, end);
+        if (pattern.isEmpty() || pattern.charAt(0) == '#') {
+            return;
+        }
+
+        boolean negated = false;
+        if (pattern.charAt(0) == '!') {
+            negated = true;
+            pattern = pattern.substring(1);
+        } else if (pattern.startsWith("\\!") || pattern.startsWith("\\#")) {
+            pattern = pattern.substring(1);
+        }
+
+        boolean directoryOnly = false;
+        if (pattern.endsWith("/")) {
+            directoryOnly = true;
+            pattern = pattern.substring(0, pattern.length() - 1);
+        } else if (pattern.endsWith("/**") && pattern.length() > 3) {
+            // Everything inside a directory: pruning the directory has the same effect
+            directoryOnly = true;
+            pattern = pattern.substring(0, pattern.length() - 3);
+        }
+        boolean anchored = pattern.indexOf('/') >= 0;
+
+        List<String> segments = new ArrayList<>();
+        for (String segment : pattern.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        if (segments.isEmpty()) {
+            return;
+        }
+        if (!anchored) {
+            // A name without a slash matches at any depth
+            segments.add(0, "**");
+        }
+
+        int rule = ruleCount++;
+        if (negated) {
+            negatedRules.set(rule);
+        }
+        Node node = root;
+        for (String segment : segments) {
+            node = child(node, segment);
+        }
+        if (directoryOnly) {
+            node.directoryRule = rule;
+        } else {
+            node.anyRule = rule;
+        }
+    }
+
+    private static Node child(Node node, String segment) {
+        if (segment.equals("**")) {
+            if (node.loops) {
+                return node;
+            }
+            if (node.anyDepth == null) {
+                node.anyDepth = new Node();
+                node.anyDepth.loops = true;
+            }
+            return node.anyDepth;
+        }
+        if (!GlobSegment.hasWildcards(segment)) {
+            if (node.literals == null) {
+                node.literals = new HashMap<>();
+            }
+            return node.literals.computeIfAbsent(segment, key -> new Node());
+        }
+        if (node.globs == null) {
+            node.globs = new LinkedHashMap<>();
+        }
+        return node.globs.computeIfAbsent(segment, key -> new GlobEdge(GlobSegment.compile(key))).target;
+    }
+
+    /**
+     * Matches one path against the rules. Only the path itself is tested; callers that need
+     * gitignore semantics for ancestors walk the tree top-down and prune ignored directories.
+     *
+     * @param relativePath {@code /}-separated path relative to the directory the rules belong to
+     */
+    public Verdict match(CharSequence relativePath, boolean directory) {
+        if (ruleCount == 0) {
+            return Verdict.NONE;
+        }
+        List<Node> active = new ArrayList<>(4);
+        enter(root, active);
+        int length = relativePath.length();
+        int start = 0;
+        while (start < length && !active.isEmpty()) {
+            int end = start;
+            while (end < length && relativePath.charAt(end) != '/') {
+                end++;
+            }
+            if (end > start) {
+                active = step(active, relativePath, start, end);
+            }
+            start = end + 1;
+        }
+
+        int best = -1;
+        for (Node node : active) {
+            best = Math.max(best, node.anyRule);
+            if (directory) {
+                best = Math.max(best, node.directoryRule);
+            }
+        }
+        if (best < 0) {
+            return Verdict.NONE;
+        }
+        return negatedRules.get(best) ? Verdict.INCLUDE : Verdict.IGNORE;
+    }
+
+    private static List<Node> step(List<Node> active, CharSequence path, int start, int end) {
+        List<Node> next = new ArrayList<>(4);
+        String segment = null;
+        for (Node node : active) {
+            if (node.loops) {
+                enter(node, next);
+            }
+            if (node.literals != null) {
+                if (segment == null) {
+                    segment = path.subSequence(start, end).toString();
+                }
+                Node child = node.literals.get(segment);
+                if (child != null) {
+                    enter(child, next);
+                }
+            }
+            if (node.globs != null) {
+                for (GlobEdge edge : node.globs.values()) {
+                    if (edge.glob.matches(path, start, end)) {
+                        enter(edge.target, next);
+                    }
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Adds a node and, since {@code **} also matches zero segments, its {@code **} child.
+     */
+    private static void enter(Node node, List<Node> active) {
+        while (node != null && !active.contains(node)) {
+            active.add(node);
+            node = node.anyDepth;
+        }
+    }
+}
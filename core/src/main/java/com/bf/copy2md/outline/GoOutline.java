@@ -0,0 +1,89 @@
+package com.bf.copy2md.outline;
+
+import com.bf.copy2md.analysis.GoSourceScanner;
+
+import java.util.List;
+
+/**
+ * Declarations-only view of a Go file: the package clause, type declarations with their struct
+ * and interface bodies, and function signatures without bodies, each under the first line of its
+ * doc comment. Built from {@link GoSourceScanner} offsets in one pass over the text, so it needs
+ * neither the Go plugin nor a parser. Has no IDE dependencies.
+ */
+public final class GoOutline {
+
+    private GoOutline() {
+    }
+
+    /**
+     * @return the outline, empty if the file declares nothing
+     */
+    public static String build(CharSequence text) {
+        StringBuilder out = new StringBuilder();
+        String packageName = GoSourceScanner.packageName(text);
+        if (packageName != null) {
+            out.append("package ").append(packageName).append('\n');
+        }
+
+        List<GoSourceScanner.TypeDeclaration> types = GoSourceScanner.scanTypes(text);
+        List<GoSourceScanner.Function> functions = GoSourceScanner.scanFunctions(text);
+        int nextType = 0;
+        int nextFunction = 0;
+        boolean previousSingleLine = false;
+        // Both lists are in source order; merge them so the outline keeps the file's order
+        while (nextType < types.size() || nextFunction < functions.size()) {
+            boolean takeType = nextFunction >= functions.size() || nextType < types.size()
+                    && types.get(nextType).declarationStart < functions.get(nextFunction).declarationStart;
+            int start;
+            int declarationStart;
+            CharSequence declaration;
+            if (takeType) {
+                GoSourceScanner.TypeDeclaration type = types.get(nextType++);
+                start = type.start;
+                declarationStart = type.declarationStart;
+                declaration = text.subSequence(declarationStart, type.end);
+            } else {
+                GoSourceScanner.Function function = functions.get(nextFunction++);
+                start = function.start;
+                declarationStart = function.declarationStart;
+                declaration = text.subSequence(declarationStart, function.bodyStart).toString().stripTrailing();
+            }
+
+            String doc = firstDocLine(text, start, declarationStart);
+            boolean singleLine = doc == null && !takeType;
+            // Undocumented functions are listed without blank lines between them
+            if (out.length() > 0 && !(singleLine && previousSingleLine)) {
+                out.append('\n');
+            }
+            if (doc != null) {
+                out.append("// ").append(doc).append('\n');
+            }
+            out.append(declaration).append('\n');
+            previousSingleLine = singleLine;
+        }
+        return out.toString();
+    }
+
+    /**
+     * First line of the {@code //} comment block in {@code [start, end)} that is not a compiler
+     * directive such as {@code //go:generate}, or null if there is none.
+     */
+    private static String firstDocLine(CharSequence text, int start, int end) {
+        int pos = start;
+        while (pos < end) {
+            int lineEnd = pos;
+            while (lineEnd < end && text.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            String line = text.subSequence(pos, lineEnd).toString().strip();
+            if (line.startsWith("//") && !line.startsWith("//go:")) {
+                String doc = line.substring(2).strip();
+                if (!doc.isEmpty()) {
+                    return doc;
+                }
+            }
+            pos = lineEnd + 1;
+        }
+        return null;
+    }
+}
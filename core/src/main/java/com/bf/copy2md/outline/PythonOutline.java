@@ -0,0 +1,256 @@
+package com.bf.copy2md.outline;
+
+import com.bf.copy2md.analysis.PythonSourceScanner;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Declarations-only view of a Python file: classes, functions and methods with their decorators
+ * and full signatures, module and class level assignments without their values, and the first
+ * line of every docstring. Function bodies and other blocks ({@code if}, {@code try}, ...) are
+ * left out, nested functions included. The result is itself valid Python. Works on logical lines
+ * in one pass over the text, tracking strings and bracket depth like {@link PythonSourceScanner}.
+ * Has no IDE dependencies.
+ */
+public final class PythonOutline {
+
+    private PythonOutline() {
+    }
+
+    /**
+     * One logical line: physical lines joined by open brackets, backslashes or triple-quoted strings.
+     */
+    private static final class Line {
+        /** Start of the line's indentation. */
+        int lineStart;
+        /** First character after the indentation. */
+        int start;
+        /** End of the code, without trailing blanks and comment. */
+        int end;
+        /** Start of the next line. */
+        int next;
+        int indent;
+        /** First ':' outside brackets and strings, or -1. */
+        int colon = -1;
+        /** First assignment '=' outside brackets and strings, or -1. */
+        int assign = -1;
+
+        boolean isBlank() {
+            return end <= start;
+        }
+
+        boolean opensBlock(CharSequence text) {
+            return !isBlank() && text.charAt(end - 1) == ':';
+        }
+    }
+
+    /**
+     * @return the outline, empty if the file declares nothing
+     */
+    public static String build(CharSequence text) {
+        StringBuilder out = new StringBuilder();
+        // Indents of the enclosing blocks, each with whether its body is part of the outline
+        Deque<int[]> blocks = new ArrayDeque<>();
+        String pendingHeader = null;
+        int pendingIndent = 0;
+        boolean pendingDef = false;
+        boolean firstStatement = true;
+        boolean afterDecorator = false;
+
+        int pos = 0;
+        while (pos < text.length()) {
+            Line line = scanLine(text, pos);
+            pos = line.next;
+            if (line.isBlank()) {
+                continue;
+            }
+            while (!blocks.isEmpty() && blocks.peek()[0] >= line.indent) {
+                blocks.pop();
+            }
+
+            String doc = docstring(text, line);
+            if (pendingHeader != null) {
+                // A header is written once its body's first statement tells whether there is a docstring
+                out.append(pendingHeader);
+                boolean documented = doc != null && line.indent > pendingIndent;
+                if (documented) {
+                    out.append('\n').append(text, line.lineStart, line.start).append("\"\"\"").append(doc).append("\"\"\"");
+                } else if (pendingDef) {
+                    out.append(" ...");
+                }
+                out.append('\n');
+                pendingHeader = null;
+                if (documented) {
+                    continue;
+                }
+            } else if (firstStatement && doc != null) {
+                out.append("\"\"\"").append(doc).append("\"\"\"\n");
+                firstStatement = false;
+                continue;
+            }
+            firstStatement = false;
+
+            if (!blocks.isEmpty() && blocks.peek()[1] == 0) {
+                if (line.opensBlock(text)) {
+                    blocks.push(new int[]{line.indent, 0});
+                }
+                continue;
+            }
+
+            boolean def = PythonSourceScanner.isDefAt(text, line.start);
+            boolean isClass = !def && isWordAt(text, line.start, "class");
+            boolean decorator = text.charAt(line.start) == '@';
+            if ((def || isClass || decorator) && line.indent == 0 && out.length() > 0 && !afterDecorator) {
+                out.append('\n');
+            }
+            afterDecorator = decorator;
+
+            if ((def || isClass) && line.colon >= 0) {
+                String header = text.subSequence(line.lineStart, line.colon + 1).toString();
+                if (line.opensBlock(text) && line.colon == line.end - 1) {
+                    pendingHeader = header;
+                    pendingIndent = line.indent;
+                    pendingDef = def;
+                    blocks.push(new int[]{line.indent, isClass ? 1 : 0});
+                } else {
+                    // One-line body, e.g. "def f(): return 1" or "class E(Exception): pass"
+                    out.append(header).append(" ...\n");
+                }
+            } else if (decorator) {
+                out.append(text, line.lineStart, line.end).append('\n');
+            } else if (line.opensBlock(text)) {
+                blocks.push(new int[]{line.indent, 0});
+            } else if (isField(text, line)) {
+                int targetEnd = line.assign >= 0 ? line.assign : line.end;
+                out.append(text.subSequence(line.lineStart, targetEnd).toString().stripTrailing());
+                out.append(line.assign >= 0 ? " = ...\n" : "\n");
+            }
+        }
+        if (pendingHeader != null) {
+            out.append(pendingHeader).append(pendingDef ? " ...\n" : "\n");
+        }
+        return out.toString();
+    }
+
+    private static Line scanLine(CharSequence text, int pos) {
+        int length = text.length();
+        Line line = new Line();
+        line.lineStart = pos;
+        while (pos < length && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) {
+            pos++;
+        }
+        line.start = pos;
+        line.end = pos;
+        line.indent = pos - line.lineStart;
+
+        int depth = 0;
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (c == '#') {
+                while (pos < length && text.charAt(pos) != '\n') {
+                    pos++;
+                }
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                pos = PythonSourceScanner.skipStringLiteral(text, pos);
+                line.end = pos;
+                continue;
+            }
+            if (c == '\\' && pos + 1 < length && (text.charAt(pos + 1) == '\n' || text.charAt(pos + 1) == '\r')) {
+                pos = text.charAt(pos + 1) == '\r' && pos + 2 < length && text.charAt(pos + 2) == '\n' ? pos + 3 : pos + 2;
+                continue;
+            }
+            if (c == '\n') {
+                if (depth == 0) {
+                    break;
+                }
+            } else if (c == '(' || c == '[' || c == '{') {
+                depth++;
+            } else if (c == ')' || c == ']' || c == '}') {
+                depth = Math.max(0, depth - 1);
+            } else if (depth == 0 && c == ':' && line.colon < 0 && (pos + 1 >= length || text.charAt(pos + 1) != '=')) {
+                line.colon = pos;
+            } else if (depth == 0 && c == '=' && line.assign < 0 && isAssignment(text, pos)) {
+                line.assign = pos;
+            }
+            if (!Character.isWhitespace(c)) {
+                line.end = pos + 1;
+            }
+            pos++;
+        }
+        line.next = Math.min(length, pos + 1);
+        return line;
+    }
+
+    /**
+     * Whether the {@code =} at {@code pos} is a plain assignment, not a comparison, an augmented
+     * assignment or part of {@code :=}.
+     */
+    private static boolean isAssignment(CharSequence text, int pos) {
+        if (pos + 1 < text.length() && text.charAt(pos + 1) == '=') {
+            return false;
+        }
+        return pos == 0 || "=!<>:+-*/%&|^@".indexOf(text.charAt(pos - 1)) < 0;
+    }
+
+    /**
+     * An assignment or annotation to a plain name, {@code NAME = ...} or {@code name: Type}.
+     */
+    private static boolean isField(CharSequence text, Line line) {
+        int pos = line.start;
+        if (!Character.isJavaIdentifierStart(text.charAt(pos))) {
+            return false;
+        }
+        while (pos < line.end && Character.isJavaIdentifierPart(text.charAt(pos))) {
+            pos++;
+        }
+        while (pos < line.end && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) {
+            pos++;
+        }
+        return pos == line.assign || pos == line.colon;
+    }
+
+    /**
+     * First non-blank line of the docstring if {@code line} is a statement consisting of just a
+     * string literal, otherwise null.
+     */
+    private static String docstring(CharSequence text, Line line) {
+        int quote = line.start;
+        while (quote < line.end && quote - line.start < 2 && Character.isLetter(text.charAt(quote))) {
+            quote++;
+        }
+        if (quote >= line.end || text.charAt(quote) != '"' && text.charAt(quote) != '\'') {
+            return null;
+        }
+        int end = PythonSourceScanner.skipStringLiteral(text, quote);
+        if (end != line.end) {
+            return null;
+        }
+        char q = text.charAt(quote);
+        boolean triple = quote + 2 < end && text.charAt(quote + 1) == q && text.charAt(quote + 2) == q;
+        int contentStart = quote + (triple ? 3 : 1);
+        int contentEnd = Math.max(contentStart, end - (triple ? 3 : 1));
+        for (String docLine : text.subSequence(contentStart, contentEnd).toString().split("\n")) {
+            String stripped = docLine.strip();
+            if (!stripped.isEmpty()) {
+                return stripped.replace("\"\"\"", "\\\"\\\"\\\"");
+            }
+        }
+        return "";
+    }
+
+    private static boolean isWordAt(CharSequence text, int offset, String word) {
+        int end = offset + word.length();
+        if (end > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (text.charAt(offset + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return end == text.length() || !Character.isJavaIdentifierPart(text.charAt(end));
+    }
+}
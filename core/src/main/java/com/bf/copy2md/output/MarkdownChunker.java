@@ -0,0 +1,170 @@
+package com.bf.copy2md.output;
+
+import com.bf.copy2md.util.TokenEstimator;
+
+import java.io.IOException;
+
+/**
+ * Splits the document into parts that each stay under an estimated token budget.
+ * Parts break between files; a file that does not fit into a part on its own is split between
+ * lines, and its code fence is closed and reopened around every break. Every part starts with
+ * the run's header, marked with the part number. Used in the same order as an output:
+ * {@link #begin}, then {@link #fileTarget()}/{@link #endFile()} once per file, then {@link #finish()}.
+ */
+public final class MarkdownChunker {
+    private static final String FENCE = "```";
+    private static final String CLOSING_FENCE = FENCE + "\n";
+    private static final int CLOSING_FENCE_TOKENS = TokenEstimator.estimate(CLOSING_FENCE);
+
+    /**
+     * Receives each finished part, numbered from 1. The builder is not reused afterwards.
+     */
+    public interface ChunkWriter {
+        void writeChunk(int index, StringBuilder chunk) throws IOException;
+    }
+
+    private final int tokenBudget;
+    private final ChunkWriter writer;
+    private final StringBuilder fileBuffer = new StringBuilder();
+    private String header = "";
+    private int headerTokens;
+    private StringBuilder chunk;
+    private int chunkTokens;
+    private int chunkCount;
+
+    public MarkdownChunker(int tokenBudget, ChunkWriter writer) {
+        this.tokenBudget = tokenBudget;
+        this.writer = writer;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public void begin(String header) {
+        this.header = header;
+        // Room for the " (part N)" marker
+        headerTokens = TokenEstimator.estimate(header) + 4;
+    }
+
+    public Appendable fileTarget() {
+        fileBuffer.setLength(0);
+        return fileBuffer;
+    }
+
+    public void endFile() throws IOException {
+        int tokens = TokenEstimator.estimate(fileBuffer);
+        if (chunk != null && chunkTokens + tokens > tokenBudget) {
+            flushChunk();
+        }
+        if (headerTokens + tokens <= tokenBudget) {
+            startChunkIfNeeded();
+            chunk.append(fileBuffer);
+            chunkTokens += tokens;
+        } else {
+            splitOversizedFile();
+        }
+        if (fileBuffer.capacity() > 1024 * 1024) {
+            // Do not pin the buffer of one huge file for the rest of the run
+            fileBuffer.setLength(0);
+            fileBuffer.trimToSize();
+        }
+    }
+
+    private void splitOversizedFile() throws IOException {
+        int length = fileBuffer.length();
+        int prefixEnd = findOpeningFenceEnd();
+        int prefixTokens = TokenEstimator.estimate(fileBuffer, 0, prefixEnd);
+
+        startChunkIfNeeded();
+        chunk.append(fileBuffer, 0, prefixEnd);
+        chunkTokens += prefixTokens;
+        boolean hasLines = false;
+
+        int pos = prefixEnd;
+        while (pos < length) {
+            int lineEnd = pos;
+            while (lineEnd < length && fileBuffer.charAt(lineEnd++) != '\n') {
+                // advance to the end of the line, newline included
+            }
+            int lineTokens = TokenEstimator.estimate(fileBuffer, pos, lineEnd);
+            if (hasLines && chunkTokens + lineTokens + CLOSING_FENCE_TOKENS > tokenBudget) {
+                if (prefixEnd > 0) {
+                    chunk.append(CLOSING_FENCE);
+                }
+                flushChunk();
+                startChunkIfNeeded();
+                chunk.append(fileBuffer, 0, prefixEnd);
+                chunkTokens += prefixTokens;
+                hasLines = false;
+            }
+            chunk.append(fileBuffer, pos, lineEnd);
+            chunkTokens += lineTokens;
+            hasLines = true;
+            pos = lineEnd;
+        }
+    }
+
+    /**
+     * Offset just past the line that opens the code fence, or 0 if the fragment has none.
+     */
+    private int findOpeningFenceEnd() {
+        int length = fileBuffer.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && fileBuffer.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd - lineStart >= FENCE.length() && fileBuffer.indexOf(FENCE, lineStart) == lineStart) {
+                return Math.min(length, lineEnd + 1);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return 0;
+    }
+
+    private void startChunkIfNeeded() {
+        if (chunk != null) {
+            return;
+        }
+        chunk = new StringBuilder(Math.min(tokenBudget, 1 << 20) * 4 + header.length() + 16);
+        int headerEnd = header.length();
+        while (headerEnd > 0 && Character.isWhitespace(header.charAt(headerEnd - 1))) {
+            headerEnd--;
+        }
+        chunk.append(header, 0, headerEnd)
+                .append(" (part ").append(chunkCount + 1).append(')')
+                .append(header, headerEnd, header.length());
+        chunkTokens = headerTokens;
+    }
+
+    private void flushChunk() throws IOException {
+        if (chunk == null) {
+            return;
+        }
+        int end = chunk.length();
+        while (end > 0 && Character.isWhitespace(chunk.charAt(end - 1))) {
+            end--;
+        }
+        chunk.setLength(end);
+        chunk.append('\n');
+        writer.writeChunk(++chunkCount, chunk);
+        chunk = null;
+        chunkTokens = 0;
+    }
+
+    /**
+     * Writes the last, partly filled part.
+     */
+    public void finish() throws IOException {
+        flushChunk();
+    }
+
+    /**
+     * Drops the part being filled; parts already written are the writer's to clean up.
+     */
+    public void discard() {
+        chunk = null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.bf.copy2md.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations with power-of-two buckets in microseconds. Recording is a
+ * couple of atomic adds; percentiles are read back as bucket upper bounds, which is precise
+ * enough to tell a 20 ms copy from a 2 s one.
+ */
+public final class DurationHistogram {
+    // Bucket i holds durations below 2^i microseconds; the last one is open-ended (~ 35 minutes and up)
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos) / 1_000;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double meanMillis() {
+        long n = count.get();
+        return n == 0 ? 0 : totalNanos.get() / 1e6 / n;
+    }
+
+    public double maxMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    /**
+     * Upper bound of the bucket holding the {@code quantile} (0..1) of all recorded durations,
+     * capped at the maximum seen.
+     */
+    public double percentileMillis(double quantile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                // The last bucket has no upper bound
+                return i == BUCKETS - 1 ? maxMillis() : Math.min((1L << i) / 1e3, maxMillis());
+            }
+        }
+        return maxMillis();
+    }
+}
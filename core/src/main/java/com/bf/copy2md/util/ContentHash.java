@@ -0,0 +1,88 @@
+package com.bf.copy2md.util;
+
+/**
+ * 64-bit XXH64 hash of text, read straight from the chars as their UTF-16LE bytes, so no byte
+ * array is built. Used to spot identical file contents in one copy; equal hashes are treated as
+ * equal content, which at 64 bits is safe for the few thousand files of a selection.
+ */
+public final class ContentHash {
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+    private static final long PRIME_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME_5 = 0x27D4EB2F165667C5L;
+
+    private ContentHash() {
+    }
+
+    public static long hash(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        long hash;
+        if (length >= 16) {
+            long v1 = PRIME_1 + PRIME_2;
+            long v2 = PRIME_2;
+            long v3 = 0;
+            long v4 = -PRIME_1;
+            // 32-byte stripes are 16 chars
+            for (int limit = length - 16; i <= limit; i += 16) {
+                v1 = round(v1, lane(text, i));
+                v2 = round(v2, lane(text, i + 4));
+                v3 = round(v3, lane(text, i + 8));
+                v4 = round(v4, lane(text, i + 12));
+            }
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = merge(hash, v1);
+            hash = merge(hash, v2);
+            hash = merge(hash, v3);
+            hash = merge(hash, v4);
+        } else {
+            hash = PRIME_5;
+        }
+        hash += 2L * length;
+
+        for (; i + 4 <= length; i += 4) {
+            hash ^= round(0, lane(text, i));
+            hash = Long.rotateLeft(hash, 27) * PRIME_1 + PRIME_4;
+        }
+        if (i + 2 <= length) {
+            long word = (text.charAt(i) | (long) text.charAt(i + 1) << 16) & 0xFFFFFFFFL;
+            hash ^= word * PRIME_1;
+            hash = Long.rotateLeft(hash, 23) * PRIME_2 + PRIME_3;
+            i += 2;
+        }
+        if (i < length) {
+            char c = text.charAt(i);
+            hash = tailByte(hash, c & 0xFF);
+            hash = tailByte(hash, c >>> 8);
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    /** Four chars as one little-endian 64-bit lane. */
+    private static long lane(CharSequence text, int i) {
+        return text.charAt(i) | (long) text.charAt(i + 1) << 16 | (long) text.charAt(i + 2) << 32 | (long) text.charAt(i + 3) << 48;
+    }
+
+    private static long round(long accumulator, long input) {
+        accumulator += input * PRIME_2;
+        accumulator = Long.rotateLeft(accumulator, 31);
+        return accumulator * PRIME_1;
+    }
+
+    private static long merge(long hash, long accumulator) {
+        hash ^= round(0, accumulator);
+        return hash * PRIME_1 + PRIME_4;
+    }
+
+    private static long tailByte(long hash, int value) {
+        hash ^= value * PRIME_5;
+        return Long.rotateLeft(hash, 11) * PRIME_1;
+    }
+}
@@ -0,0 +1,43 @@
+package com.bf.copy2md.util;
+
+import java.io.IOException;
+
+/**
+ * Passes text through to another {@link Appendable} and counts the chars, for writers that
+ * stream a fragment and still need its length afterwards.
+ */
+public final class CountingAppendable implements Appendable {
+    private final Appendable out;
+    private long count;
+
+    public CountingAppendable(Appendable out) {
+        this.out = out;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        CharSequence text = csq != null ? csq : "null";
+        out.append(text);
+        count += text.length();
+        return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        out.append(csq != null ? csq : "null", start, end);
+        count += end - start;
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        out.append(c);
+        count++;
+        return this;
+    }
+
+    /** Chars appended so far. */
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,51 @@
+package com.bf.copy2md.util;
+
+/**
+ * Single-pass token estimate for LLM context budgets. Runs of ASCII letters and digits count as
+ * one token per four characters, every other visible ASCII character as one token, and every
+ * non-ASCII character as one token (close to what BPE tokenizers do for CJK text).
+ * Whitespace is free. Nothing is allocated per character.
+ */
+public final class TokenEstimator {
+    private static final int CHARS_PER_WORD_TOKEN = 4;
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(CharSequence text) {
+        return estimate(text, 0, text.length());
+    }
+
+    public static int estimate(CharSequence text, int start, int end) {
+        int tokens = 0;
+        int wordLength = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 128) {
+                if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_') {
+                    wordLength++;
+                    continue;
+                }
+                if (wordLength > 0) {
+                    tokens += (wordLength + CHARS_PER_WORD_TOKEN - 1) / CHARS_PER_WORD_TOKEN;
+                    wordLength = 0;
+                }
+                if (c > ' ' && c != 127) {
+                    tokens++;
+                }
+            } else {
+                if (wordLength > 0) {
+                    tokens += (wordLength + CHARS_PER_WORD_TOKEN - 1) / CHARS_PER_WORD_TOKEN;
+                    wordLength = 0;
+                }
+                if (!Character.isWhitespace(c) && !Character.isLowSurrogate(c)) {
+                    tokens++;
+                }
+            }
+        }
+        if (wordLength > 0) {
+            tokens += (wordLength + CHARS_PER_WORD_TOKEN - 1) / CHARS_PER_WORD_TOKEN;
+        }
+        return tokens;
+    }
+}
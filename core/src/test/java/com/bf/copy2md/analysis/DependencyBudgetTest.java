@@ -0,0 +1,54 @@
+package com.bf.copy2md.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DependencyBudgetTest {
+    // Every function costs its estimated tokens plus 16 for its heading and fence
+    private static final String SMALL = "ab";                // 1 + 16
+    private static final String MEDIUM = "x".repeat(40);    // 10 + 16
+    private static final String LARGE = "y".repeat(80);     // 20 + 16
+
+    @Test
+    void zeroMeansUnlimited() {
+        DependencyBudget budget = DependencyBudget.tokens(0);
+        assertTrue(budget.isUnlimited());
+        budget.charge(LARGE.repeat(1000));
+        List<String> candidates = List.of(LARGE, MEDIUM, SMALL);
+        assertSame(candidates, budget.select(candidates, code -> code));
+        assertFalse(budget.isSpent());
+        assertEquals(0, budget.getSkippedCount());
+    }
+
+    @Test
+    void takesSmallestFirstAndKeepsOriginalOrder() {
+        DependencyBudget budget = DependencyBudget.tokens(80);
+        budget.charge(SMALL);
+        assertFalse(budget.isSpent());
+        // 17 used: SMALL and MEDIUM bring it to 60, LARGE would need 96
+        assertEquals(List.of(MEDIUM, SMALL), budget.select(List.of(MEDIUM, LARGE, SMALL), code -> code));
+        assertEquals(1, budget.getSkippedCount());
+        assertTrue(budget.isSpent());
+    }
+
+    @Test
+    void everythingFitsWithinTheLimit() {
+        DependencyBudget budget = DependencyBudget.tokens(1000);
+        budget.charge(SMALL);
+        assertEquals(List.of(LARGE, MEDIUM, SMALL), budget.select(List.of(LARGE, MEDIUM, SMALL), code -> code));
+        assertEquals(0, budget.getSkippedCount());
+        assertFalse(budget.isSpent());
+    }
+
+    @Test
+    void analyzedFunctionCanSpendTheWholeBudget() {
+        DependencyBudget budget = DependencyBudget.tokens(50);
+        budget.charge(LARGE);
+        assertTrue(budget.isSpent());
+        assertEquals(List.of(), budget.select(List.of(SMALL), code -> code));
+        assertEquals(1, budget.getSkippedCount());
+    }
+}
@@ -0,0 +1,157 @@
+package com.bf.copy2md.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoSourceScannerTest {
+    private static final String SOURCE = ""
+            + "// Package demo does things.\n"
+            + "package demo\n"
+            + "\n"
+            + "import (\n"
+            + "\t\"fmt\"\n"
+            + "\tstr \"strings\"\n"
+            + "\t_ \"embed\"\n"
+            + "\t\"example.com/x/util\"\n"
+            + ")\n"
+            + "\n"
+            + "// Greeter greets.\n"
+            + "type Greeter struct {\n"
+            + "\tname string\n"
+            + "}\n"
+            + "\n"
+            + "type (\n"
+            + "\tID    int\n"
+            + "\tNames []string\n"
+            + ")\n"
+            + "\n"
+            + "// Greet returns a greeting.\n"
+            + "// It has two lines of doc.\n"
+            + "func (g *Greeter) Greet(prefix string) string {\n"
+            + "\ts := \"func fake() {\" + `}`\n"
+            + "\treturn fmt.Sprintf(\"%s %s\", prefix, str.ToUpper(g.name)) + helper(s)\n"
+            + "}\n"
+            + "\n"
+            + "func helper(s string) string { return s }\n"
+            + "\n"
+            + "func Map[T any](xs []T, f func(T) T) []T {\n"
+            + "\tfor i := range xs {\n"
+            + "\t\txs[i] = f(xs[i])\n"
+            + "\t}\n"
+            + "\treturn xs\n"
+            + "}\n"
+            + "\n"
+            + "func asm(x int) int\n";
+
+    private static String text(int start, int end) {
+        return SOURCE.substring(start, end);
+    }
+
+    private static List<String> calls(String text) {
+        List<String> calls = new ArrayList<>();
+        for (GoSourceScanner.Call call : GoSourceScanner.scanCalls(text, 0, text.length())) {
+            calls.add(call.qualifier == null ? call.name : call.qualifier + "." + call.name);
+        }
+        return calls;
+    }
+
+    @Test
+    void readsPackageNameAfterComments() {
+        assertEquals("demo", GoSourceScanner.packageName(SOURCE));
+        assertNull(GoSourceScanner.packageName("func main() {}\n"));
+    }
+
+    @Test
+    void importsByReferencedName() {
+        Map<String, String> imports = GoSourceScanner.imports(SOURCE);
+        assertEquals(List.of("fmt", "str", "util"), new ArrayList<>(imports.keySet()));
+        assertEquals("strings", imports.get("str"));
+        assertEquals("example.com/x/util", imports.get("util"));
+    }
+
+    @Test
+    void importsRangeCoversSingleLineImports() {
+        String text = "package p\n\nimport \"os\"\nimport . \"math\"\n\nvar x = 1\n";
+        int[] range = GoSourceScanner.importsRange(text);
+        assertNotNull(range);
+        assertEquals("import \"os\"\nimport . \"math\"", text.substring(range[0], range[1]));
+        assertEquals(Map.of("os", "os"), GoSourceScanner.imports(text));
+        assertNull(GoSourceScanner.importsRange("package p\n\nfunc f() {}\n"));
+    }
+
+    @Test
+    void scansTopLevelFunctionsWithBodies() {
+        List<GoSourceScanner.Function> functions = GoSourceScanner.scanFunctions(SOURCE);
+        List<String> names = new ArrayList<>();
+        for (GoSourceScanner.Function function : functions) {
+            names.add(function.name);
+        }
+        // asm has no body, and the func inside the string literal is not a declaration
+        assertEquals(List.of("Greet", "helper", "Map"), names);
+    }
+
+    @Test
+    void methodIncludesReceiverAndDocComment() {
+        GoSourceScanner.Function greet = GoSourceScanner.scanFunctions(SOURCE).get(0);
+        assertEquals("Greeter", greet.receiverType);
+        assertEquals("g", greet.receiverName);
+        assertEquals(SOURCE.indexOf("// Greet returns"), greet.start);
+        assertEquals(SOURCE.indexOf("func (g"), greet.declarationStart);
+        assertTrue(text(greet.bodyStart, greet.end).startsWith("{\n\ts := "));
+        assertTrue(text(greet.start, greet.end).endsWith("helper(s)\n}"));
+    }
+
+    @Test
+    void genericFunctionWithFunctionTypedParameter() {
+        GoSourceScanner.Function map = GoSourceScanner.scanFunctions(SOURCE).get(2);
+        assertNull(map.receiverType);
+        assertEquals(map.declarationStart, map.start);
+        assertTrue(text(map.start, map.end).endsWith("return xs\n}"));
+    }
+
+    @Test
+    void structTypeInSignatureIsNotTheBody() {
+        String text = "func f(o struct{ a int }) interface{ M() } {\n\treturn nil\n}\n";
+        GoSourceScanner.Function f = GoSourceScanner.scanFunctions(text).get(0);
+        assertEquals("{\n\treturn nil\n}", text.substring(f.bodyStart, f.end));
+    }
+
+    @Test
+    void scansTopLevelTypeDeclarations() {
+        List<GoSourceScanner.TypeDeclaration> types = GoSourceScanner.scanTypes(SOURCE);
+        assertEquals(2, types.size());
+        assertEquals("// Greeter greets.\ntype Greeter struct {\n\tname string\n}",
+                text(types.get(0).start, types.get(0).end));
+        assertEquals("type (\n\tID    int\n\tNames []string\n)", text(types.get(1).start, types.get(1).end));
+    }
+
+    @Test
+    void typeSpecEndsBeforeTrailingComment() {
+        String text = "type Celsius float64 // degrees\n\nfunc f() {\n\ttype local int\n}\n";
+        List<GoSourceScanner.TypeDeclaration> types = GoSourceScanner.scanTypes(text);
+        assertEquals(1, types.size());
+        assertEquals("type Celsius float64", text.substring(types.get(0).start, types.get(0).end));
+    }
+
+    @Test
+    void scansQualifiedAndPlainCalls() {
+        GoSourceScanner.Function greet = GoSourceScanner.scanFunctions(SOURCE).get(0);
+        String body = text(greet.bodyStart, greet.end);
+        assertEquals(List.of("fmt.Sprintf", "str.ToUpper", "helper"), calls(body));
+    }
+
+    @Test
+    void skipsKeywordsBuiltinsAndConversions() {
+        assertEquals(List.of("work"), calls("if len(xs) > int(n) { for (x) { work(string(b)) } }"));
+    }
+
+    @Test
+    void callOnExpressionOrSelectorChainHasEmptyQualifier() {
+        assertEquals(List.of("f", ".name", ".b", "pkg.c"), calls("f().name(); x.a.b(); pkg.c()"));
+    }
+}
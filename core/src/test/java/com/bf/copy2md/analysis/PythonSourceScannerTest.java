@@ -0,0 +1,191 @@
+package com.bf.copy2md.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PythonSourceScannerTest {
+    private static final String TWO_FUNCTIONS = ""
+            + "import os\n"
+            + "\n"
+            + "def first(a):\n"
+            + "    return a + 1\n"
+            + "\n"
+            + "@cache\n"
+            + "def second(b):\n"
+            + "    return first(b) * 2\n";
+
+    private static String range(String text, int[] range) {
+        assertNotNull(range);
+        return text.substring(range[0], range[1]);
+    }
+
+    @Test
+    void findsFirstFunctionFromStart() {
+        assertEquals("def first(a):\n    return a + 1",
+                range(TWO_FUNCTIONS, PythonSourceScanner.findFunctionRange(TWO_FUNCTIONS)));
+    }
+
+    @Test
+    void findsFunctionAtIndexedOffsetInPlainTextFile() {
+        // The definition index stores the offset of the def line; the whole file is one text leaf
+        int offset = TWO_FUNCTIONS.indexOf("def second");
+        assertEquals("@cache\ndef second(b):\n    return first(b) * 2",
+                range(TWO_FUNCTIONS, PythonSourceScanner.findFunctionRange(TWO_FUNCTIONS, offset)));
+    }
+
+    @Test
+    void offsetInsideLineStartsAtThatLine() {
+        int offset = TWO_FUNCTIONS.indexOf("second(b)");
+        assertTrue(range(TWO_FUNCTIONS, PythonSourceScanner.findFunctionRange(TWO_FUNCTIONS, offset))
+                .startsWith("@cache\ndef second"));
+    }
+
+    @Test
+    void findsInnermostEnclosingFunction() {
+        String text = "def outer():\n    def inner():\n        return 1\n    return inner()\n";
+        assertEquals(text.indexOf("    def inner"),
+                PythonSourceScanner.findEnclosingFunction(text, text.indexOf("return 1")));
+        assertEquals(0, PythonSourceScanner.findEnclosingFunction(text, text.indexOf("return inner")));
+        assertEquals(-1, PythonSourceScanner.findEnclosingFunction("x = 1\n", 2));
+    }
+
+    @Test
+    void enclosingFunctionOfSecondFunction() {
+        int caret = TWO_FUNCTIONS.indexOf("first(b)");
+        assertEquals(TWO_FUNCTIONS.indexOf("def second"), PythonSourceScanner.findEnclosingFunction(TWO_FUNCTIONS, caret));
+    }
+
+    @Test
+    void scansCallsSkippingDefinitionsStringsAndComments() {
+        String text = "def f(x):\n    # g(x)\n    s = 'h(x)' + f\"{k(x)}\"\n    return self.m(x) + n (x) + f(x)\nclass C(Base): pass\n";
+        assertEquals(List.of("m", "n", "f"), PythonSourceScanner.scanCalls(text, 0, text.length()));
+    }
+
+    @Test
+    void collectsCallsFromPlainTextFile() {
+        // Without the Python plugin the file is one text leaf; only the function's range is scanned
+        int start = TWO_FUNCTIONS.indexOf("def second");
+        assertEquals(List.of("first"), PythonSourceScanner.scanCalls(TWO_FUNCTIONS, start, TWO_FUNCTIONS.length()));
+    }
+
+    @Test
+    void scansEveryDefinitionInAFile() {
+        String text = TWO_FUNCTIONS
+                + "class A:\n"
+                + "    async def method(self):\n"
+                + "        def first(): pass\n";
+        assertEquals(Map.of(
+                        "first", TWO_FUNCTIONS.indexOf("def first"),
+                        "second", TWO_FUNCTIONS.indexOf("def second"),
+                        "method", text.indexOf("async def method")),
+                PythonSourceScanner.scanDefinitions(text));
+    }
+
+    @Test
+    void definitionsInStringsDocstringsAndCommentsAreSkipped() {
+        String text = "def real():\n"
+                + "    \"\"\"Usage:\n"
+                + "    def fake_doc(x): ...\n"
+                + "    \"\"\"\n"
+                + "    s = 'def fake_str(): pass'\n"
+                + "    # def fake_comment(): pass\n"
+                + "    t = r'''\n"
+                + "def fake_raw():\n"
+                + "'''\n"
+                + "x = 1; def_ = 2\n"
+                + "undef(y)\n";
+        assertEquals(Map.of("real", 0), PythonSourceScanner.scanDefinitions(text));
+    }
+
+    @Test
+    void includesMultipleDecoratorsAndAsyncDef() {
+        String text = "@a\n@b(1)\nasync def f():\n    await g()\n\nx = 1\n";
+        assertEquals("@a\n@b(1)\nasync def f():\n    await g()", range(text, PythonSourceScanner.findFunctionRange(text)));
+    }
+
+    @Test
+    void endsAtFirstStatementBackAtFunctionLevel() {
+        String text = "class A:\n    def m(self):\n        pass\n\n    # trailing comment\n    def n(self):\n        pass\n";
+        assertEquals("def m(self):\n        pass", range(text, PythonSourceScanner.findFunctionRange(text)));
+    }
+
+    @Test
+    void tripleQuotedStringDoesNotEndFunction() {
+        String text = "def f():\n    s = \"\"\"\nnot indented\ndef g(): pass\n\"\"\"\n    return s\nprint(1)\n";
+        assertEquals("def f():\n    s = \"\"\"\nnot indented\ndef g(): pass\n\"\"\"\n    return s",
+                range(text, PythonSourceScanner.findFunctionRange(text)));
+    }
+
+    @Test
+    void bracketsContinueSignature() {
+        String text = "def f(a,\nb):\n    return a\ny = 2\n";
+        assertEquals("def f(a,\nb):\n    return a", range(text, PythonSourceScanner.findFunctionRange(text)));
+    }
+
+    @Test
+    void stripsStubReturnAnnotation() {
+        String text = "def f(x: int) -> int: ...\n";
+        assertEquals("def f(x: int)", range(text, PythonSourceScanner.findFunctionRange(text)));
+    }
+
+    @Test
+    void noFunction() {
+        assertNull(PythonSourceScanner.findFunctionRange("x = 1\nprint(x)\n"));
+    }
+
+    @Test
+    void stripsStringLiterals() {
+        assertEquals("x =  + ", PythonSourceScanner.stripStringLiterals("x = rb'a(b)' + \"\"\"c\nd\"\"\""));
+    }
+
+    @Test
+    void treatsOnlyPrefixWordsBeforeQuotesAsPartOfTheLiteral() {
+        assertEquals("print(name, )", PythonSourceScanner.stripStringLiterals("print(name, fr'{x}')"));
+        assertEquals("word", PythonSourceScanner.stripStringLiterals("word"));
+        assertEquals("abc", PythonSourceScanner.stripStringLiterals("abc'x'"));
+    }
+
+    @Test
+    void stripsEscapedQuotesAndUnbalancedLiterals() {
+        assertEquals("a =  + b", PythonSourceScanner.stripStringLiterals("a = 'it\\'s' + b"));
+        assertEquals("x = \nnext", PythonSourceScanner.stripStringLiterals("x = 'open\nnext"));
+        assertEquals("y = ", PythonSourceScanner.stripStringLiterals("y = \"\"\"never closed\n"));
+    }
+
+    @Test
+    void skipsToTheEndOfEachLiteral() {
+        String text = "'a\\'b' \"\"\"x\"y\"\"\" 'z";
+        int afterFirst = PythonSourceScanner.skipStringLiteral(text, 0);
+        assertEquals(text.indexOf(" \"\"\""), afterFirst);
+        int afterSecond = PythonSourceScanner.skipStringLiteral(text, afterFirst + 1);
+        assertEquals(text.lastIndexOf(" '"), afterSecond);
+        assertEquals(text.length(), PythonSourceScanner.skipStringLiteral(text, afterSecond + 1));
+    }
+
+    @Test
+    void extractsFunctionNames() {
+        assertEquals("foo", PythonSourceScanner.extractFunctionName("def foo(a):"));
+        assertEquals("bar", PythonSourceScanner.extractFunctionName("async def bar():"));
+        assertEquals("baz", PythonSourceScanner.extractFunctionName("self.baz(1)"));
+        assertEquals("q", PythonSourceScanner.extractFunctionName("a.b.q(\"x.y\")"));
+    }
+
+    @Test
+    void recursiveFunctionIsNamedByItsDefLine() {
+        String text = "class Tree:\n"
+                + "    async def walk(self, root):\n"
+                + "        for child in os.listdir(root):\n"
+                + "            await self.walk(os.path.join(root, child))\n";
+        int def = PythonSourceScanner.findEnclosingFunction(text, text.indexOf("os.path"));
+        assertEquals(text.indexOf("    async def"), def);
+        assertEquals("walk", PythonSourceScanner.functionNameAt(text, def));
+        // The extractor drops the function's own name from its callees; a dotted call must stay
+        int[] range = PythonSourceScanner.findFunctionRange(text, def);
+        assertEquals(List.of("listdir", "walk", "join"), PythonSourceScanner.scanCalls(text, range[0], range[1]));
+        assertNull(PythonSourceScanner.functionNameAt(text, 0));
+    }
+}
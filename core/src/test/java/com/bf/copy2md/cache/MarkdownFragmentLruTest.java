@@ -0,0 +1,70 @@
+package com.bf.copy2md.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownFragmentLruTest {
+
+    @Test
+    void hitsOnlyForTheCachedStamp() {
+        MarkdownFragmentLru<String> lru = new MarkdownFragmentLru<>(100, 50);
+        lru.put("a.py", 7, "fragment", 42, 3);
+        MarkdownFragmentLru.Entry entry = lru.get("a.py", 7);
+        assertNotNull(entry);
+        assertEquals("fragment", entry.getFragment());
+        assertEquals(42, entry.getContentHash());
+        assertEquals(3, entry.getContentLength());
+        assertNull(lru.get("a.py", 8));
+        assertNull(lru.get("b.py", 7));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedOnceOverBudget() {
+        MarkdownFragmentLru<String> lru = new MarkdownFragmentLru<>(30, 30);
+        lru.put("a", 1, "a".repeat(10), 0, 0);
+        lru.put("b", 1, "b".repeat(10), 0, 0);
+        lru.put("c", 1, "c".repeat(10), 0, 0);
+        // Reading a makes b the eldest
+        assertNotNull(lru.get("a", 1));
+        lru.put("d", 1, "d".repeat(10), 0, 0);
+        assertNull(lru.get("b", 1));
+        assertNotNull(lru.get("a", 1));
+        assertNotNull(lru.get("c", 1));
+        assertNotNull(lru.get("d", 1));
+        assertEquals(30, lru.getCachedChars());
+    }
+
+    @Test
+    void replacingAnEntryReleasesItsChars() {
+        MarkdownFragmentLru<String> lru = new MarkdownFragmentLru<>(100, 100);
+        lru.put("a", 1, "x".repeat(40), 0, 0);
+        lru.put("a", 2, "y".repeat(10), 0, 0);
+        assertEquals(10, lru.getCachedChars());
+        assertNull(lru.get("a", 1));
+    }
+
+    @Test
+    void oversizedFragmentsAreNotCached() {
+        MarkdownFragmentLru<String> lru = new MarkdownFragmentLru<>(100, 20);
+        assertTrue(lru.isCacheable(20));
+        assertFalse(lru.isCacheable(21));
+        lru.put("big", 1, "z".repeat(21), 0, 0);
+        assertNull(lru.get("big", 1));
+        assertEquals(0, lru.getCachedChars());
+    }
+
+    @Test
+    void invalidateAndClearDropEntries() {
+        MarkdownFragmentLru<String> lru = new MarkdownFragmentLru<>(100, 100);
+        lru.put("a", 1, "aaa", 0, 0);
+        lru.put("b", 1, "bb", 0, 0);
+        lru.invalidate("a");
+        lru.invalidate("missing");
+        assertNull(lru.get("a", 1));
+        assertEquals(2, lru.getCachedChars());
+        lru.clear();
+        assertNull(lru.get("b", 1));
+        assertEquals(0, lru.getCachedChars());
+    }
+}
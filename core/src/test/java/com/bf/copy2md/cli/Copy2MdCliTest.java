@@ -0,0 +1,53 @@
+package com.bf.copy2md.cli;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Copy2MdCliTest {
+    @TempDir
+    Path dir;
+
+    private String export(String... options) throws IOException {
+        Path output = dir.resolve("out.md");
+        String[] args = new String[options.length + 3];
+        args[0] = "-o";
+        args[1] = output.toString();
+        System.arraycopy(options, 0, args, 2, options.length);
+        args[args.length - 1] = dir.toString();
+        assertEquals(0, Copy2MdCli.run(args));
+        return Files.readString(output, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void outputFileInsideTreeIsNotRenderedIntoItself() throws IOException {
+        Files.writeString(dir.resolve("a.py"), "print(1)\n");
+        Files.writeString(dir.resolve("out.md"), "stale output from an earlier run\n");
+
+        String markdown = export();
+        assertTrue(markdown.contains("## File: a.py"));
+        assertFalse(markdown.contains("out.md"));
+        assertFalse(markdown.contains("stale output"));
+    }
+
+    @Test
+    void onlyGitDirectoryIsSkipped() throws IOException {
+        Files.createDirectories(dir.resolve(".git"));
+        Files.writeString(dir.resolve(".git/config"), "[core]\n");
+        Files.createDirectories(dir.resolve(".github/workflows"));
+        Files.writeString(dir.resolve(".github/workflows/ci.yml"), "on: push\n");
+        Files.createDirectories(dir.resolve(".cache"));
+        Files.writeString(dir.resolve(".cache/x.txt"), "cached\n");
+
+        String markdown = export("--ignore", ".cache/");
+        assertTrue(markdown.contains("## File: .github/workflows/ci.yml"));
+        assertFalse(markdown.contains(".git/config"));
+        assertFalse(markdown.contains(".cache"));
+    }
+}
@@ -0,0 +1,36 @@
+package com.bf.copy2md.formatter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateIndexTest {
+    private static final int LONG = DuplicateIndex.MIN_CHARS;
+
+    @Test
+    void laterFilesWithTheSameContentReferToTheFirst() {
+        DuplicateIndex index = new DuplicateIndex();
+        assertNull(index.firstWith(42, LONG, "a/License.txt"));
+        assertEquals("a/License.txt", index.firstWith(42, LONG, "b/License.txt"));
+        assertEquals("a/License.txt", index.firstWith(42, LONG, "c/License.txt"));
+        assertEquals(2, index.getDuplicateCount());
+    }
+
+    @Test
+    void differentContentIsNotADuplicate() {
+        DuplicateIndex index = new DuplicateIndex();
+        assertNull(index.firstWith(1, LONG, "one"));
+        assertNull(index.firstWith(2, LONG, "two"));
+        assertEquals(0, index.getDuplicateCount());
+    }
+
+    @Test
+    void shortFilesAreAlwaysWrittenOut() {
+        DuplicateIndex index = new DuplicateIndex();
+        assertNull(index.firstWith(7, LONG - 1, "__init__.py"));
+        assertNull(index.firstWith(7, LONG - 1, "pkg/__init__.py"));
+        // Short files are not remembered either
+        assertNull(index.firstWith(7, LONG, "long.py"));
+        assertEquals(0, index.getDuplicateCount());
+    }
+}
@@ -0,0 +1,49 @@
+package com.bf.copy2md.formatter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownHtmlTest {
+
+    private static String body(String html) {
+        assertTrue(html.startsWith("<html><body>\n") && html.endsWith("</body></html>\n"));
+        return html.substring("<html><body>\n".length(), html.length() - "</body></html>\n".length());
+    }
+
+    @Test
+    void rendersHeadingsCodeBlocksAndParagraphs() {
+        String markdown = "# Project Name: demo\n\n"
+                + "## src/a.java\n"
+                + "```java\n"
+                + "if (a < b && c > \"d\") {}\n"
+                + "```\n\n"
+                + "text line\n"
+                + "second line\n";
+        assertEquals("<h1>Project Name: demo</h1>\n"
+                + "<h2>src/a.java</h2>\n"
+                + "<pre><code class=\"language-java\">if (a &lt; b &amp;&amp; c &gt; &quot;d&quot;) {}\n"
+                + "</code></pre>\n"
+                + "<p>text line<br>\n"
+                + "second line</p>\n", body(MarkdownHtml.render(markdown)));
+    }
+
+    @Test
+    void longerFenceContainsShorterOnes() {
+        String markdown = "````md\n```\n# not a heading\n```\n````\n";
+        assertEquals("<pre><code class=\"language-md\">```\n# not a heading\n```\n</code></pre>\n",
+                body(MarkdownHtml.render(markdown)));
+    }
+
+    @Test
+    void unclosedFenceIsClosedAtTheEnd() {
+        assertEquals("<pre><code>x\n</code></pre>\n", body(MarkdownHtml.render("```\nx\n")));
+    }
+
+    @Test
+    void onlyHashesFollowedBySpaceStartHeadings() {
+        assertEquals("<p>#include &lt;stdio.h&gt;</p>\n<p>####### seven</p>\n",
+                body(MarkdownHtml.render("#include <stdio.h>\n\n####### seven\n")));
+        assertEquals("<h6>six</h6>\n", body(MarkdownHtml.render("###### six\n")));
+    }
+}
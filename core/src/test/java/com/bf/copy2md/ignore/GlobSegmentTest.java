@@ -0,0 +1,65 @@
+package com.bf.copy2md.ignore;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobSegmentTest {
+
+    private static boolean matches(String pattern, String segment) {
+        return GlobSegment.compile(pattern).matches(segment, 0, segment.length());
+    }
+
+    @Test
+    void starMatchesAnyRun() {
+        assertTrue(matches("*.java", "Main.java"));
+        assertTrue(matches("*.java", ".java"));
+        assertTrue(matches("a*b*c", "aXXbYYc"));
+        assertTrue(matches("a**b", "ab"));
+        assertFalse(matches("*.java", "Main.jav"));
+    }
+
+    @Test
+    void questionMarkMatchesOneCharacter() {
+        assertTrue(matches("file?.txt", "file1.txt"));
+        assertFalse(matches("file?.txt", "file.txt"));
+        assertFalse(matches("file?.txt", "file12.txt"));
+    }
+
+    @Test
+    void characterClasses() {
+        assertTrue(matches("[a-c]x", "bx"));
+        assertFalse(matches("[a-c]x", "dx"));
+        assertTrue(matches("[!a-c]x", "dx"));
+        assertTrue(matches("[^a-c]x", "dx"));
+        assertFalse(matches("[!a-c]x", "ax"));
+        assertTrue(matches("[]]", "]"));
+    }
+
+    @Test
+    void unclosedBracketIsLiteral() {
+        assertTrue(matches("[abc", "[abc"));
+        assertFalse(matches("[abc", "a"));
+    }
+
+    @Test
+    void backslashEscapesWildcards() {
+        assertTrue(matches("\\*", "*"));
+        assertFalse(matches("\\*", "a"));
+    }
+
+    @Test
+    void matchesOnlyTheGivenRange() {
+        String path = "src/Main.java";
+        assertTrue(GlobSegment.compile("*.java").matches(path, 4, path.length()));
+        assertFalse(GlobSegment.compile("*.java").matches(path, 0, 3));
+    }
+
+    @Test
+    void detectsWildcards() {
+        assertTrue(GlobSegment.hasWildcards("*.md"));
+        assertTrue(GlobSegment.hasWildcards("a[bc]"));
+        assertTrue(GlobSegment.hasWildcards("\\#x"));
+        assertFalse(GlobSegment.hasWildcards("README.md"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.bf.copy2md.ignore;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IgnoreMatcherTest {
+
+    @Test
+    void nestedGitignoreAppliesBelowItsDirectory() {
+        IgnoreMatcher matcher = IgnoreMatcher.NONE
+                .withGitignore("", "*.log\n")
+                .withGitignore("web", "/dist/\n");
+        assertTrue(matcher.isIgnored("web/dist", true));
+        assertFalse(matcher.isIgnored("dist", true));
+        assertFalse(matcher.isIgnored("web/src/dist", true));
+        assertTrue(matcher.isIgnored("web/debug.log", false));
+    }
+
+    @Test
+    void innerNegationOverridesOuterRule() {
+        IgnoreMatcher matcher = IgnoreMatcher.NONE
+                .withGitignore("", "*.log\n")
+                .withGitignore("logs", "!keep.log\n");
+        assertFalse(matcher.isIgnored("logs/keep.log", false));
+        assertTrue(matcher.isIgnored("logs/other.log", false));
+        assertTrue(matcher.isIgnored("keep.log", false));
+    }
+
+    @Test
+    void userRulesWinOverGitignore() {
+        IgnoreMatcher matcher = IgnoreMatcher.of(IgnoreRules.of(List.of("!generated/", "*.tmp")))
+                .withGitignore("", "generated/\n");
+        assertFalse(matcher.isIgnored("generated", true));
+        assertTrue(matcher.isIgnored("a/b.tmp", false));
+    }
+
+    @Test
+    void directoryOnlyRuleDoesNotIgnoreFiles() {
+        IgnoreMatcher matcher = IgnoreMatcher.NONE.withGitignore("", "cache/\n");
+        assertTrue(matcher.isIgnored("cache", true));
+        assertFalse(matcher.isIgnored("cache", false));
+    }
+
+    @Test
+    void emptyGitignoreKeepsTheSameMatcher() {
+        assertSame(IgnoreMatcher.NONE, IgnoreMatcher.NONE.withGitignore("sub", "# nothing\n"));
+        assertFalse(IgnoreMatcher.NONE.isIgnored("anything", false));
+    }
+}
@@ -0,0 +1,83 @@
+package com.bf.copy2md.ignore;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IgnoreRulesTest {
+
+    private static IgnoreRules.Verdict match(String rules, String path, boolean directory) {
+        return IgnoreRules.parse(rules).match(path, directory);
+    }
+
+    @Test
+    void nameWithoutSlashMatchesAtAnyDepth() {
+        assertEquals(IgnoreRules.Verdict.IGNORE, match("*.log", "app.log", false));
+        assertEquals(IgnoreRules.Verdict.IGNORE, match("*.log", "a/b/app.log", false));
+        assertEquals(IgnoreRules.Verdict.NONE, match("*.log", "app.txt", false));
+    }
+
+    @Test
+    void slashAnchorsToBaseDirectory() {
+        assertEquals(IgnoreRules.Verdict.IGNORE, match("/build", "build", true));
+        assertEquals(IgnoreRules.Verdict.NONE, match("/build", "src/build", true));
+        assertEquals(IgnoreRules.Verdict.IGNORE, match("docs/*.md", "docs/a.md", false));
+        assertEquals(IgnoreRules.Verdict.NONE, match("docs/*.md", "x/docs/a.md", false));
+    }
+
+    @Test
+    void trailingSlashMatchesDirectoriesOnly() {
+        assertEquals(IgnoreRules.Verdict.IGNORE, match("out/", "out", true));
+        assertEquals(IgnoreRules.Verdict.IGNORE, match("out/", "module/out", true));
+        assertEquals(IgnoreRules.Verdict.NONE, match("out/", "out", false));
+    }
+
+    @Test
+    void doubleStarMatchesAnyNumberOfSegments() {
+        String rules = "a/**/z.txt";
+        assertEquals(IgnoreRules.Verdict.IGNORE, match(rules, "a/z.txt", false));
+        assertEquals(IgnoreRules.Verdict.IGNORE, match(rules, "a/b/z.txt", false));
+        assertEquals(IgnoreRules.Verdict.IGNORE, match(rules, "a/b/c/z.txt", false));
+        assertEquals(IgnoreRules.Verdict.NONE, match(rules, "b/z.txt", false));
+        assertEquals(IgnoreRules.Verdict.IGNORE, match("**/gen", "x/y/gen", true));
+    }
+
+    @Test
+    void trailingDoubleStarPrunesTheDirectory() {
+        assertEquals(IgnoreRules.Verdict.IGNORE, match("vendor/**", "vendor", true));
+        assertEquals(IgnoreRules.Verdict.NONE, match("vendor/**", "vendor", false));
+    }
+
+    @Test
+    void lastMatchingRuleWins() {
+        String rules = "*.log\n!keep.log\n";
+        assertEquals(IgnoreRules.Verdict.IGNORE, match(rules, "x.log", false));
+        assertEquals(IgnoreRules.Verdict.INCLUDE, match(rules, "sub/keep.log", false));
+        assertEquals(IgnoreRules.Verdict.IGNORE, match("!keep.log\n*.log\n", "keep.log", false));
+    }
+
+    @Test
+    void skipsCommentsBlankLinesAndCarriageReturns() {
+        IgnoreRules rules = IgnoreRules.parse("# comment\n\r\n\ntmp  \r\n");
+        assertFalse(rules.isEmpty());
+        assertEquals(IgnoreRules.Verdict.IGNORE, rules.match("tmp", false));
+        assertEquals(IgnoreRules.Verdict.NONE, rules.match("# comment", false));
+        assertTrue(IgnoreRules.parse("# only a comment\n").isEmpty());
+    }
+
+    @Test
+    void escapedBangAndHashAreLiterals() {
+        assertEquals(IgnoreRules.Verdict.IGNORE, match("\\!important", "!important", false));
+        assertEquals(IgnoreRules.Verdict.IGNORE, match("\\#tag", "#tag", false));
+    }
+
+    @Test
+    void patternListWithoutFile() {
+        IgnoreRules rules = IgnoreRules.of(List.of("node_modules/", "*.min.js"));
+        assertEquals(IgnoreRules.Verdict.IGNORE, rules.match("web/node_modules", true));
+        assertEquals(IgnoreRules.Verdict.IGNORE, rules.match("web/app.min.js", false));
+        assertEquals(IgnoreRules.Verdict.NONE, IgnoreRules.EMPTY.match("anything", false));
+    }
+}
@@ -0,0 +1,57 @@
+package com.bf.copy2md.outline;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoOutlineTest {
+
+    @Test
+    void keepsTypesAndSignaturesInSourceOrder() {
+        String source = ""
+                + "// Package demo does things.\n"
+                + "package demo\n"
+                + "\n"
+                + "import \"fmt\"\n"
+                + "\n"
+                + "// Greeter greets.\n"
+                + "// More doc.\n"
+                + "type Greeter struct {\n"
+                + "\tname string\n"
+                + "}\n"
+                + "\n"
+                + "//go:generate stringer\n"
+                + "// Greet returns a greeting.\n"
+                + "func (g *Greeter) Greet(prefix string) string {\n"
+                + "\treturn fmt.Sprint(prefix, g.name)\n"
+                + "}\n"
+                + "\n"
+                + "func a() {}\n"
+                + "\n"
+                + "func b(x int) (int, error) {\n"
+                + "\treturn x, nil\n"
+                + "}\n"
+                + "\n"
+                + "type ID int\n";
+        assertEquals(""
+                + "package demo\n"
+                + "\n"
+                + "// Greeter greets.\n"
+                + "type Greeter struct {\n"
+                + "\tname string\n"
+                + "}\n"
+                + "\n"
+                + "// Greet returns a greeting.\n"
+                + "func (g *Greeter) Greet(prefix string) string\n"
+                + "\n"
+                + "func a()\n"
+                + "func b(x int) (int, error)\n"
+                + "\n"
+                + "type ID int\n", GoOutline.build(source));
+    }
+
+    @Test
+    void emptyFileHasNoOutline() {
+        assertEquals("", GoOutline.build(""));
+    }
+}
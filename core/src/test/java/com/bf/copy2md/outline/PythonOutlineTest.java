@@ -0,0 +1,77 @@
+package com.bf.copy2md.outline;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PythonOutlineTest {
+
+    @Test
+    void keepsDeclarationsAndFirstDocstringLines() {
+        String source = ""
+                + "\"\"\"Module doc.\n\nMore text.\n\"\"\"\n"
+                + "import os\n"
+                + "\n"
+                + "MAX = 10\n"
+                + "name: str = 'x'\n"
+                + "if os.name == 'nt':\n"
+                + "    SEP = '\\\\'\n"
+                + "\n"
+                + "@dataclass\n"
+                + "class Point(Base):\n"
+                + "    \"\"\"A point.\"\"\"\n"
+                + "    x: int = 0\n"
+                + "    y: int\n"
+                + "\n"
+                + "    @property\n"
+                + "    def norm(self,\n"
+                + "             p: int = 2) -> float:\n"
+                + "        def helper():\n"
+                + "            return 1\n"
+                + "        total = helper()\n"
+                + "        return total\n"
+                + "\n"
+                + "    async def fetch(self): return await x\n"
+                + "\n"
+                + "def main():\n"
+                + "    '''Entry point.'''\n"
+                + "    for i in range(3):\n"
+                + "        print(i)\n"
+                + "\n"
+                + "class Error(Exception): pass\n";
+        assertEquals(""
+                + "\"\"\"Module doc.\"\"\"\n"
+                + "MAX = ...\n"
+                + "name: str = ...\n"
+                + "\n"
+                + "@dataclass\n"
+                + "class Point(Base):\n"
+                + "    \"\"\"A point.\"\"\"\n"
+                + "    x: int = ...\n"
+                + "    y: int\n"
+                + "    @property\n"
+                + "    def norm(self,\n"
+                + "             p: int = 2) -> float: ...\n"
+                + "    async def fetch(self): ...\n"
+                + "\n"
+                + "def main():\n"
+                + "    \"\"\"Entry point.\"\"\"\n"
+                + "\n"
+                + "class Error(Exception): ...\n", PythonOutline.build(source));
+    }
+
+    @Test
+    void bodyStartingWithCodeIsElided() {
+        assertEquals("def f(x): ...\n", PythonOutline.build("def f(x):\n    y = x\n    return y\n"));
+    }
+
+    @Test
+    void comparisonsAndWalrusAreNotFields() {
+        assertEquals("", PythonOutline.build("x == 1\n(y := 2)\nz += 3\n"));
+    }
+
+    @Test
+    void fileWithoutDeclarationsIsEmpty() {
+        assertEquals("", PythonOutline.build("import os\nprint(1)\n"));
+    }
+}
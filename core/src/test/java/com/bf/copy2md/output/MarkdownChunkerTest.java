@@ -0,0 +1,91 @@
+package com.bf.copy2md.output;
+
+import com.bf.copy2md.formatter.MarkdownFragment;
+import com.bf.copy2md.util.TokenEstimator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownChunkerTest {
+    private static final String HEADER = "# Project Name: demo\n\n";
+
+    private final List<String> parts = new ArrayList<>();
+
+    private MarkdownChunker chunker(int tokenBudget) {
+        MarkdownChunker chunker = new MarkdownChunker(tokenBudget, (index, chunk) -> {
+            assertEquals(parts.size() + 1, index);
+            parts.add(chunk.toString());
+        });
+        chunker.begin(HEADER);
+        return chunker;
+    }
+
+    private static void addFile(MarkdownChunker chunker, String path, String content) throws IOException {
+        MarkdownFragment.append(chunker.fileTarget(), path, "py", content);
+        chunker.endFile();
+    }
+
+    @Test
+    void smallFilesShareOnePart() throws IOException {
+        MarkdownChunker chunker = chunker(1000);
+        addFile(chunker, "a.py", "x = 1");
+        addFile(chunker, "b.py", "y = 2");
+        chunker.finish();
+        assertEquals(List.of("# Project Name: demo (part 1)\n\n"
+                + "## File: a.py\n\n```py\nx = 1\n```\n\n"
+                + "## File: b.py\n\n```py\ny = 2\n```\n"), parts);
+        assertEquals(1, chunker.getChunkCount());
+    }
+
+    @Test
+    void partsBreakBetweenFiles() throws IOException {
+        String content = "value = compute(1, 2)";
+        StringBuilder fragment = new StringBuilder();
+        MarkdownFragment.append(fragment, "a.py", "py", content);
+        // Room for the header and one file, but not two
+        int budget = TokenEstimator.estimate(HEADER) + 4 + TokenEstimator.estimate(fragment) + 2;
+        MarkdownChunker chunker = chunker(budget);
+        addFile(chunker, "a.py", content);
+        addFile(chunker, "b.py", content);
+        chunker.finish();
+        assertEquals(2, parts.size());
+        assertTrue(parts.get(0).startsWith("# Project Name: demo (part 1)\n\n## File: a.py"));
+        assertTrue(parts.get(1).startsWith("# Project Name: demo (part 2)\n\n## File: b.py"));
+        assertFalse(parts.get(0).contains("b.py"));
+    }
+
+    @Test
+    void oversizedFileIsSplitBetweenLinesWithTheFenceReopened() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            content.append("line_").append(i).append(" = value_").append(i).append('\n');
+        }
+        MarkdownChunker chunker = chunker(60);
+        addFile(chunker, "big.py", content.toString());
+        chunker.finish();
+
+        assertTrue(parts.size() > 1);
+        StringBuilder joined = new StringBuilder();
+        for (String part : parts) {
+            assertTrue(part.contains("## File: big.py\n\n```py\n"), part);
+            assertTrue(part.endsWith("```\n"), part);
+            int body = part.indexOf("```py\n") + "```py\n".length();
+            joined.append(part, body, part.length() - "```\n".length());
+        }
+        // Every line ends up in exactly one part, in order
+        assertEquals(content + "\n", joined.toString());
+    }
+
+    @Test
+    void discardDropsThePartBeingFilled() throws IOException {
+        MarkdownChunker chunker = chunker(1000);
+        addFile(chunker, "a.py", "x = 1");
+        chunker.discard();
+        chunker.finish();
+        assertEquals(List.of(), parts);
+    }
+}
@@ -0,0 +1,43 @@
+package com.bf.copy2md.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurationHistogramTest {
+
+    @Test
+    void emptyHistogramReportsZero() {
+        DurationHistogram histogram = new DurationHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.meanMillis());
+        assertEquals(0, histogram.percentileMillis(0.5));
+    }
+
+    @Test
+    void percentilesAreBucketUpperBoundsCappedAtTheMaximum() {
+        DurationHistogram histogram = new DurationHistogram();
+        // 300 and 400 us fall in [256, 512) us, 3 ms in [2048, 4096) us
+        histogram.record(300_000);
+        histogram.record(400_000);
+        histogram.record(3_000_000);
+        assertEquals(3, histogram.getCount());
+        assertEquals(0.512, histogram.percentileMillis(0.5));
+        assertEquals(0.512, histogram.percentileMillis(2.0 / 3));
+        // The bucket bound, 4.096 ms, is above the slowest run
+        assertEquals(3.0, histogram.percentileMillis(0.99));
+        assertEquals(3.0, histogram.maxMillis());
+        assertEquals(1.2333, histogram.meanMillis(), 1e-4);
+    }
+
+    @Test
+    void subMicrosecondAndHugeDurationsLandInTheEdgeBuckets() {
+        DurationHistogram histogram = new DurationHistogram();
+        histogram.record(500);
+        histogram.record(-1);
+        // Bucket 0 ends at 1 us, above the 0.5 us maximum
+        assertEquals(0.0005, histogram.percentileMillis(1.0), 1e-9);
+        histogram.record(Long.MAX_VALUE / 2);
+        assertEquals(Long.MAX_VALUE / 2 / 1e6, histogram.percentileMillis(1.0));
+    }
+}
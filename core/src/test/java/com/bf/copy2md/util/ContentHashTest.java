@@ -0,0 +1,28 @@
+package com.bf.copy2md.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentHashTest {
+
+    // Expected values are XXH64 with seed 0 of the texts' UTF-16LE bytes, from the reference implementation
+    @Test
+    void matchesXxh64OfUtf16LeBytes() {
+        assertEquals(0xEF46DB3751D8E999L, ContentHash.hash(""));
+        assertEquals(0xE513E02C99167F96L, ContentHash.hash("a"));
+        assertEquals(0xAFF0F2A2F8B32731L, ContentHash.hash("abc"));
+        // One full 32-byte stripe, then tails of every size
+        assertEquals(0x65915D1B2958D2EFL, ContentHash.hash("0123456789abcdef"));
+        assertEquals(0x689092E9BD7A2327L, ContentHash.hash("The quick brown fox jumps over the lazy dog!"));
+        assertEquals(0x4B19938F88ED4B9DL, ContentHash.hash("\u00e9\u4e2d\ud83d\ude00x"));
+    }
+
+    @Test
+    void dependsOnlyOnTheChars() {
+        String text = "def f():\n    return 1\n".repeat(20);
+        assertEquals(ContentHash.hash(text), ContentHash.hash(new StringBuilder(text)));
+        assertNotEquals(ContentHash.hash(text), ContentHash.hash(text + " "));
+        assertNotEquals(ContentHash.hash("ab"), ContentHash.hash("ba"));
+    }
+}
@@ -0,0 +1,19 @@
+package com.bf.copy2md.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountingAppendableTest {
+
+    @Test
+    void countsWhatIsPassedThrough() throws IOException {
+        StringBuilder out = new StringBuilder("kept ");
+        CountingAppendable counting = new CountingAppendable(out);
+        counting.append("abc").append('d').append("xefgx", 1, 4).append(null);
+        assertEquals("kept abcdefgnull", out.toString());
+        assertEquals(11, counting.getCount());
+    }
+}
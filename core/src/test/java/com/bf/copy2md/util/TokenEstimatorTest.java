@@ -0,0 +1,40 @@
+package com.bf.copy2md.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenEstimatorTest {
+
+    @Test
+    void wordsCountOneTokenPerFourCharacters() {
+        assertEquals(0, TokenEstimator.estimate(""));
+        assertEquals(1, TokenEstimator.estimate("abcd"));
+        assertEquals(2, TokenEstimator.estimate("abcde"));
+        assertEquals(1, TokenEstimator.estimate("a_b1"));
+        assertEquals(4, TokenEstimator.estimate("camelCaseName"));
+    }
+
+    @Test
+    void punctuationCountsPerCharacterAndWhitespaceIsFree() {
+        assertEquals(4, TokenEstimator.estimate("a + b;"));
+        assertEquals(4, TokenEstimator.estimate("a  +\n\tb ;  "));
+        assertEquals(0, TokenEstimator.estimate(" \n\t\r "));
+    }
+
+    @Test
+    void nonAsciiCountsPerCodePoint() {
+        assertEquals(2, TokenEstimator.estimate("\u4e2d\u6587"));
+        assertEquals(1, TokenEstimator.estimate("\ud83d\ude00"));
+        assertEquals(0, TokenEstimator.estimate("\u3000"));
+        // The accented letter splits the word in two
+        assertEquals(3, TokenEstimator.estimate("h\u00e9llo"));
+    }
+
+    @Test
+    void estimatesOnlyTheGivenRange() {
+        String text = "xx abcd yy";
+        assertEquals(1, TokenEstimator.estimate(text, 3, 7));
+        assertEquals(TokenEstimator.estimate(text), TokenEstimator.estimate(text, 0, text.length()));
+    }
+}
@@ -0,0 +1,4 @@
+rootProject.name = "copy2md"
+
+// IDE-free formatting core and the headless copy2md command line
+include("core")
@@ -0,0 +1,52 @@
+package com.bf.copy2md.analysis;
+
+import com.bf.copy2md.bench.Corpus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The text helpers behind function extraction: locating a function body in flat and deeply
+ * nested Python, naming it, and stripping string literals from realistic source.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PythonSourceScannerBenchmark {
+    @Param({"10", "100", "400"})
+    public int nestingDepth;
+
+    private String nested;
+    private String flat;
+    private String callExpression;
+
+    @Setup
+    public void setUp() {
+        nested = Corpus.nestedPython(nestingDepth);
+        flat = Corpus.pythonSource(nestingDepth * 1024);
+        callExpression = "self.client.session.helper_" + nestingDepth + "(value, f\"{value!r}\", r'\\d+')";
+    }
+
+    @Benchmark
+    public int findFunctionRangeNested() {
+        return PythonSourceScanner.findFunctionRange(nested)[1];
+    }
+
+    @Benchmark
+    public int findFunctionRangeFlat() {
+        return PythonSourceScanner.findFunctionRange(flat)[1];
+    }
+
+    @Benchmark
+    public String extractFunctionName() {
+        return PythonSourceScanner.extractFunctionName(callExpression);
+    }
+
+    @Benchmark
+    public String stripStringLiterals() {
+        return PythonSourceScanner.stripStringLiterals(flat);
+    }
+}
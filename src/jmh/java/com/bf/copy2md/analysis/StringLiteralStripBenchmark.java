@@ -0,0 +1,71 @@
+package com.bf.copy2md.analysis;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares {@link PythonSourceScanner#stripStringLiterals} with the regex it replaced on inputs
+ * built to make a backtracking matcher blow up: long lines with unbalanced quotes and long runs
+ * of escapes. The scanner's time must grow linearly with {@code length}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringLiteralStripBenchmark {
+    // The pattern FunctionExtractor used before the scanner, kept here as the baseline
+    private static final Pattern LEGACY_STRING_PATTERN = Pattern.compile(
+        "(\"([^\"\\\\]|\\\\.)*\")|('([^'\\\\]|\\\\.)*')|" +
+        "(\"\"\"([^\"\"\"\\\\]|\\\\.)*\"\"\")|" +
+        "('''([^'''\\\\]|\\\\.)*''')"
+    );
+
+    @Param({"1000", "10000", "100000"})
+    public int length;
+
+    @Param({"unbalancedQuote", "escapeRun", "tripleQuoteSoup", "plainCall"})
+    public String shape;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        StringBuilder text = new StringBuilder(length + 16);
+        switch (shape) {
+            case "unbalancedQuote":
+                // An opening quote that is never closed, followed by a long tail
+                text.append("call(\"");
+                while (text.length() < length) text.append("abc def ");
+                break;
+            case "escapeRun":
+                text.append('"');
+                while (text.length() < length) text.append("\\\\\\\"");
+                break;
+            case "tripleQuoteSoup":
+                while (text.length() < length) text.append("\"\"\"'''\"'");
+                break;
+            default:
+                while (text.length() < length) text.append("self.helper(arg, f\"{x}\", r'\\d+') ");
+        }
+        input = text.toString();
+    }
+
+    @Benchmark
+    public String scanner() {
+        return PythonSourceScanner.stripStringLiterals(input);
+    }
+
+    @Benchmark
+    public String legacyRegex() {
+        try {
+            return LEGACY_STRING_PATTERN.matcher(input).replaceAll("");
+        } catch (StackOverflowError e) {
+            // The nested alternations recurse once per character on long literals
+            return "";
+        }
+    }
+}
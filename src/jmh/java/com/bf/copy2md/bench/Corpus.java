@@ -0,0 +1,51 @@
+package com.bf.copy2md.bench;
+
+/**
+ * Synthetic inputs shared by the benchmarks. Everything is generated deterministically so numbers
+ * are comparable between runs and machines.
+ */
+public final class Corpus {
+
+    private Corpus() {
+    }
+
+    /**
+     * Python-looking source of about {@code bytes} characters: flat functions with calls,
+     * strings, comments and docstrings.
+     */
+    public static String pythonSource(int bytes) {
+        StringBuilder text = new StringBuilder(bytes + 256);
+        int i = 0;
+        while (text.length() < bytes) {
+            text.append("@decorator(retries=").append(i % 5).append(")\n")
+                .append("def function_").append(i).append("(self, value, *args, **kwargs):\n")
+                .append("    \"\"\"Docstring with (brackets and 'quotes'.\n\n    More text.\n    \"\"\"\n")
+                .append("    # comment with def fake(): and a stray \"\n")
+                .append("    result = self.helper_").append(i).append("(value, f\"{value!r}\", r'\\d+')\n")
+                .append("    data = {'key': [1, 2, (3, 4)], \"other\": helper(value)}\n")
+                .append("    return transform(result, data)\n\n");
+            i++;
+        }
+        return text.toString();
+    }
+
+    /**
+     * One function whose body nests {@code depth} levels of blocks and nested functions.
+     */
+    public static String nestedPython(int depth) {
+        StringBuilder text = new StringBuilder(depth * depth * 24 + 64);
+        text.append("def outer(a, b):\n");
+        for (int level = 1; level <= depth; level++) {
+            String indent = "    ".repeat(level);
+            text.append(indent).append("def inner_").append(level).append("(x=(1, [2, {3: 4}])):\n");
+            text.append(indent).append("    value = call_").append(level).append("(x, 'level ").append(level).append("')\n");
+            text.append(indent).append("    if value:\n");
+            text.append(indent).append("        value = other_").append(level).append("(value)\n");
+        }
+        for (int level = depth; level >= 1; level--) {
+            text.append("    ".repeat(level)).append("return inner_").append(level).append("()\n");
+        }
+        text.append("\ndef sibling():\n    pass\n");
+        return text.toString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.bf.copy2md.formatter;
+
+import com.bf.copy2md.bench.Corpus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting one file, from 1 KB to 50 MB. {@code streaming} is what the copy task does today;
+ * {@code stringPerFile} is the old build-a-String-then-append path, for comparison.
+ * Run with the gc profiler to see the allocation rate of each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarkdownFormatterBenchmark {
+    @Param({"1024", "65536", "1048576", "52428800"})
+    public int fileSize;
+
+    private final MarkdownFormatter formatter = new MarkdownFormatter();
+    private String content;
+
+    @Setup
+    public void setUp() {
+        content = Corpus.pythonSource(fileSize);
+    }
+
+    @Benchmark
+    public int streaming() throws IOException {
+        String path = "src/pkg/module.py";
+        StringBuilder out = new StringBuilder(MarkdownFormatter.estimateFragmentSize(path, content.length()));
+        formatter.appendFileContent(out, path, "py", content);
+        return out.length();
+    }
+
+    @Benchmark
+    public int stringPerFile() throws IOException {
+        StringBuilder fragment = new StringBuilder();
+        formatter.appendFileContent(fragment, "src/pkg/module.py", "py", content);
+        StringBuilder out = new StringBuilder();
+        out.append(fragment.toString());
+        return out.toString().trim().length();
+    }
+}
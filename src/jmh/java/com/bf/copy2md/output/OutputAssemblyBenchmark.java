@@ -0,0 +1,84 @@
+package com.bf.copy2md.output;
+
+import com.bf.copy2md.bench.Corpus;
+import com.bf.copy2md.formatter.MarkdownFormatter;
+import com.bf.copy2md.util.TokenEstimator;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assembling a whole copy from 10 to 10k already-read files, into a single document and into
+ * token-budget chunks, plus the token estimate the chunker runs over every file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputAssemblyBenchmark {
+    @Param({"10", "1000", "10000"})
+    public int fileCount;
+
+    private final MarkdownFormatter formatter = new MarkdownFormatter();
+    private String[] contents;
+    private String[] paths;
+    private long totalLength;
+
+    @Setup
+    public void setUp() {
+        contents = new String[fileCount];
+        paths = new String[fileCount];
+        totalLength = 0;
+        for (int i = 0; i < fileCount; i++) {
+            contents[i] = Corpus.pythonSource(1024 + (i % 16) * 512);
+            paths[i] = "src/pkg" + (i % 50) + "/module_" + i + ".py";
+            totalLength += MarkdownFormatter.estimateFragmentSize(paths[i], contents[i].length());
+        }
+    }
+
+    @Benchmark
+    public int singleDocument() throws IOException {
+        ClipboardOutput output = new ClipboardOutput();
+        return assemble(output);
+    }
+
+    @Benchmark
+    public int chunked() throws IOException {
+        int[] chunks = new int[1];
+        ChunkedOutput output = new ChunkedOutput(8000) {
+            @Override
+            protected void writeChunk(int index, @NotNull StringBuilder chunk) {
+                chunks[0] += chunk.length();
+            }
+
+            @Override
+            public void publish(@NotNull com.intellij.openapi.project.Project project) {
+            }
+        };
+        assemble(output);
+        return chunks[0];
+    }
+
+    @Benchmark
+    public long estimateTokens() {
+        long tokens = 0;
+        for (String content : contents) {
+            tokens += TokenEstimator.estimate(content);
+        }
+        return tokens;
+    }
+
+    private int assemble(MarkdownOutput output) throws IOException {
+        output.begin("# Project Name: bench\n\n", totalLength);
+        for (int i = 0; i < fileCount; i++) {
+            formatter.appendFileContent(output.fileTarget(), paths[i], "py", contents[i]);
+            output.endFile();
+        }
+        output.finish();
+        return fileCount;
+    }
+}
@@ -1,27 +1,73 @@
 package com.bf.copy2md;
 
+import com.bf.copy2md.analysis.DependencyBudget;
+import com.bf.copy2md.analysis.PythonSourceScanner;
+import com.bf.copy2md.index.FunctionDefinitionIndex;
+import com.bf.copy2md.stats.CopyRun;
+import com.bf.copy2md.stats.Counter;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
-import com.intellij.psi.util.PsiTreeUtil;
-import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.indexing.FileBasedIndex;
 
 import java.util.*;
 import java.util.regex.Pattern;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import org.jetbrains.concurrency.CancellablePromise;
 
 public class FunctionExtractor {
     private static final Logger LOG = Logger.getInstance(FunctionExtractor.class);
     private final Project project;
-    private final Set<String> processedFunctions = new HashSet<>();
-    private final Map<String, String> dependencies = new HashMap<>();
-    private final Map<String, PsiElement> functionCache = new ConcurrentHashMap<>();
+    private final Map<String, Definition> functionCache = new ConcurrentHashMap<>();
+    private final Set<String> unresolvedFunctions = ConcurrentHashMap.newKeySet();
     private int maxRecursionDepth = 10;
+    private int tokenBudget = 0;
+    // 当前提取的统计，解析线程并发写入
+    private volatile CopyRun stats = CopyRun.detached();
     private boolean debug = false;
 
+    // 依赖解析线程池，每一层的函数定义在其中并行查找
+    private static final int WORKER_COUNT = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors() - 1));
+    private static final ExecutorService RESOLVE_EXECUTOR =
+        AppExecutorUtil.createBoundedApplicationPoolExecutor("Copy2MD Dependency Resolver", WORKER_COUNT);
+
+    /**
+     * 索引中的一个函数定义：所在文件与 def 行的偏移。
+     * 不依赖 PSI 结构，未安装 Python 插件时整个文件只是一个纯文本节点，偏移仍然准确
+     */
+    private static final class Definition {
+        final PsiFile file;
+        final int offset;
+
+        Definition(PsiFile file, int offset) {
+            this.file = file;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * 一次读操作内解析出的依赖函数：代码与其调用的函数名，不持有跨读操作的 PSI 引用
+     */
+    private static final class ResolvedFunction {
+        final String name;
+        final String code;
+        final Set<String> callees;
+
+        ResolvedFunction(String name, String code, Set<String> callees) {
+            this.name = name;
+            this.code = code;
+            this.callees = callees;
+        }
+    }
+
     // 标准库和内置函数模式
     private static final Pattern BUILTIN_PATTERN = Pattern.compile(
         "^(print|len|str|int|float|list|dict|set|tuple|" +
@@ -30,23 +76,10 @@ public class FunctionExtractor {
         "hasattr|getattr|setattr|delattr|callable|type)$"
     );
     
-    // 装饰器模式
-    private static final Pattern DECORATOR_PATTERN = Pattern.compile(
-        "@(staticmethod|classmethod|property|abstractmethod|" +
-        "cached_property|lru_cache|contextmanager|wraps|" +
-        "pytest\\.fixture|pytest\\.mark|mock\\.patch)"
-    );
-
-    // 字符串模式
-    private static final Pattern STRING_PATTERN = Pattern.compile(
-        "(\"([^\"\\\\]|\\\\.)*\")|('([^'\\\\]|\\\\.)*')|" +
-        "(\"\"\"([^\"\"\"\\\\]|\\\\.)*\"\"\")|" +
-        "('''([^'''\\\\]|\\\\.)*''')"
-    );
-
-    // 函数定义模式
-    private static final Pattern FUNCTION_DEF_PATTERN = Pattern.compile(
-        "^\\s*(async\\s+)?def\\s+([a-zA-Z_][a-zA-Z0-9_]*)\\s*\\("
+    // 后面可跟 "(" 但不是函数调用的关键字
+    private static final Set<String> KEYWORDS = Set.of(
+        "if", "elif", "while", "for", "in", "not", "and", "or", "is", "return",
+        "yield", "await", "assert", "del", "with", "as", "except", "lambda"
     );
 
     public FunctionExtractor(Project project) {
@@ -57,260 +90,233 @@ public class FunctionExtractor {
         this.debug = debug;
     }
 
-    public String extractFunction(PsiElement functionElement) {
-        try {
-            return doExtractFunction(functionElement);
-        } catch (Exception e) {
-            LOG.error("Error extracting function", e);
-            return "Error extracting function: " + e.getMessage();
-        }
+    /**
+     * 主函数与依赖合计的估算 token 上限，0 表示不限制。超出预算后不再解析更深层的依赖。
+     */
+    public void setTokenBudget(int tokenBudget) {
+        this.tokenBudget = Math.max(0, tokenBudget);
     }
 
-    private String doExtractFunction(PsiElement functionElement) {
-        processedFunctions.clear();
-        dependencies.clear();
-        functionCache.clear();
-
-        if (functionElement == null) {
-            LOG.warn("Null function element provided");
-            return "No function element found";
-        }
+    /**
+     * 依赖查找的缓存命中和索引查找次数记入 {@code stats}，由调用方开始和结束
+     */
+    public void setStats(CopyRun stats) {
+        this.stats = stats;
+    }
 
-        StringBuilder result = new StringBuilder();
-        result.append("# Project: ").append(project.getName()).append("\n");
-        result.append("# File: ").append(functionElement.getContainingFile().getVirtualFile().getPath()).append("\n\n");
+    /**
+     * 提取 {@code offset} 所在的函数及其依赖。在后台线程调用，自行获取读操作
+     *
+     * @return 主函数代码，其后是以 "# Dependency:" 注释分隔的依赖函数；光标不在函数内时返回 null
+     */
+    public String extractFunction(PsiFile file, int offset) {
+        functionCache.clear();
+        unresolvedFunctions.clear();
 
-        // 提取主函数代码
-        String mainFunction = extractFunctionCode(functionElement);
-        if (mainFunction.isEmpty()) {
-            LOG.warn("No valid function code extracted from element");
-            return "No valid function found";
+        if (file == null) {
+            LOG.warn("Null file provided");
+            return null;
         }
 
-        String mainFunctionName = extractFunctionName(mainFunction);
-        if (mainFunctionName.isEmpty()) {
-            LOG.warn("Could not extract function name from: " + StringUtil.first(mainFunction, 100, true));
-            return "Could not determine function name";
+        // 提取光标所在的主函数代码
+        ResolvedFunction main = ReadAction.compute(() -> {
+            if (!file.isValid()) {
+                return null;
+            }
+            CharSequence text = file.getViewProvider().getContents();
+            int defOffset = PythonSourceScanner.findEnclosingFunction(text, offset);
+            // 函数名只从 def 行读取，函数体中的点号调用（如 os.path.join）不会被当作函数名
+            return defOffset >= 0
+                ? extractFunctionCode(PythonSourceScanner.functionNameAt(text, defOffset), new Definition(file, defOffset))
+                : null;
+        });
+        if (main == null) {
+            LOG.warn("No valid function code extracted at offset " + offset);
+            return null;
         }
+        String mainFunction = main.code;
+        String mainFunctionName = main.name;
 
-        processedFunctions.add(mainFunctionName);
-        result.append(mainFunction).append("\n");
+        StringBuilder result = new StringBuilder(mainFunction).append("\n");
 
         // 提取依赖
+        Map<String, String> dependencies = Collections.emptyMap();
+        DependencyBudget budget = DependencyBudget.tokens(tokenBudget);
+        budget.charge(mainFunction);
         try {
-            extractDependencies(functionElement, 0);
+            dependencies = extractDependencies(main.callees, mainFunctionName, budget);
+        } catch (ProcessCanceledException e) {
+            throw e;
         } catch (Exception e) {
             LOG.warn("Error extracting dependencies", e);
         }
 
-        // 添加依赖函数
+        // 添加依赖函数，按调用层级和名称排序
         for (Map.Entry<String, String> entry : dependencies.entrySet()) {
-            if (!entry.getKey().equals(mainFunctionName)) {
-                result.append("\n# Dependency: ").append(entry.getKey()).append("\n");
-                result.append(entry.getValue()).append("\n");
-            }
+            result.append("\n# Dependency: ").append(entry.getKey()).append("\n");
+            result.append(entry.getValue()).append("\n");
+        }
+        if (budget.getSkippedCount() > 0) {
+            result.append("\n# ").append(budget.getSkippedCount()).append(" dependencies omitted to fit the token budget\n");
         }
 
         return result.toString();
     }
 
-    private String extractFunctionCode(PsiElement element) {
-        String text = element.getText();
-        String[] lines = text.split("\n");
-        StringBuilder functionCode = new StringBuilder();
-        boolean inFunction = false;
-        int indentLevel = -1;
-        int bracketCount = 0;
-        boolean inDocstring = false;
-        
-        for (String line : lines) {
-            String trimmedLine = line.trim();
-            
-            // 处理文档字符串
-            if (trimmedLine.startsWith("\"\"\"") || trimmedLine.startsWith("'''")) {
-                inDocstring = !inDocstring || trimmedLine.endsWith("\"\"\"") || trimmedLine.endsWith("'''");
-            }
-            
-            // 处理装饰器和函数定义
-            if (!inDocstring && (trimmedLine.startsWith("@") || 
-                FUNCTION_DEF_PATTERN.matcher(trimmedLine).find())) {
-                inFunction = true;
-                indentLevel = line.length() - trimmedLine.length();
-                functionCode.append(line).append("\n");
-                bracketCount += countBrackets(trimmedLine);
-                continue;
-            }
-            
-            if (inFunction) {
-                if (trimmedLine.isEmpty()) {
-                    functionCode.append(line).append("\n");
-                } else {
-                    int currentIndent = line.length() - trimmedLine.length();
-                    bracketCount += countBrackets(trimmedLine);
-                    
-                    if (!inDocstring && currentIndent <= indentLevel && bracketCount <= 0 && 
-                        !trimmedLine.startsWith("@") && !trimmedLine.endsWith("\\")) {
-                        break;
-                    }
-                    functionCode.append(line).append("\n");
-                }
-            }
+    /**
+     * 从定义偏移处单次字符扫描定位函数范围，直接按偏移截取文件文本，并在同一范围内收集调用的函数名
+     */
+    private ResolvedFunction extractFunctionCode(String name, Definition definition) {
+        CharSequence text = definition.file.getViewProvider().getContents();
+        int[] range = PythonSourceScanner.findFunctionRange(text, definition.offset);
+        if (range == null || range[0] == range[1]) {
+            return null;
         }
-        
-        String result = functionCode.toString().trim();
-        result = result.replaceAll("\\s*->\\s*[^:]+:\\s*\\.{3}\\s*$", "");
-        
+        String code = text.subSequence(range[0], range[1]).toString();
         if (debug) {
-            LOG.info("Extracted function code:\n" + result);
+            LOG.info("Extracted function code:\n" + code);
         }
-        
-        return result;
+        return new ResolvedFunction(name, code, collectCalledFunctionNames(text, range[0], range[1]));
     }
 
-    private void extractDependencies(PsiElement element, int depth) {
-        if (depth >= maxRecursionDepth) {
-            LOG.warn("Max recursion depth reached at: " + element.getText());
-            return;
-        }
+    /**
+     * 按层广度优先展开依赖：每一层的新函数名在线程池中以非阻塞读操作并行解析，
+     * 已访问集合保证每个函数只解析一次。有预算时每层优先保留较小的函数，
+     * 只展开被保留函数的调用，预算用尽即停止，不再解析更深的层级。
+     * 结果按层级、同层按名称排序。
+     */
+    private Map<String, String> extractDependencies(Set<String> mainCallees, String mainFunctionName, DependencyBudget budget) {
+        Set<String> visited = ConcurrentHashMap.newKeySet();
+        visited.add(mainFunctionName);
+        Map<String, String> dependencies = new LinkedHashMap<>();
 
-        Collection<PsiElement> functionCalls = PsiTreeUtil.findChildrenOfType(element, PsiElement.class);
-        
-        for (PsiElement call : functionCalls) {
-            if (isLocalFunctionCall(call)) {
-                String functionName = extractFunctionName(call.getText());
-                
-                if (!processedFunctions.contains(functionName)) {
-                    processedFunctions.add(functionName);
-                    
-                    PsiElement calledFunction = findFunctionDefinition(functionName);
-                    if (calledFunction != null) {
-                        String functionCode = extractFunctionCode(calledFunction);
-                        if (!functionCode.isEmpty()) {
-                            dependencies.put(functionName, functionCode);
-                            if (debug) {
-                                LOG.info("Found dependency: " + functionName);
-                            }
-                            extractDependencies(calledFunction, depth + 1);
-                        }
-                    } else if (debug) {
-                        LOG.info("Could not find definition for: " + functionName);
-                    }
+        List<String> level = newFunctionNames(mainCallees, visited);
+        for (int depth = 0; !level.isEmpty(); depth++) {
+            if (depth >= maxRecursionDepth) {
+                LOG.warn("Max recursion depth reached, not resolving: " + level);
+                break;
+            }
+            if (budget.isSpent()) {
+                if (debug) {
+                    LOG.info("Token budget spent, not resolving: " + level);
+                }
+                break;
+            }
+
+            List<ResolvedFunction> resolved = new ArrayList<>();
+            for (ResolvedFunction function : resolveAll(level)) {
+                if (function != null) {
+                    resolved.add(function);
                 }
             }
+
+            Set<String> nextLevel = new LinkedHashSet<>();
+            for (ResolvedFunction function : budget.select(resolved, f -> f.code)) {
+                dependencies.put(function.name, function.code);
+                nextLevel.addAll(function.callees);
+                if (debug) {
+                    LOG.info("Found dependency: " + function.name + " at depth " + depth);
+                }
+            }
+            level = newFunctionNames(nextLevel, visited);
         }
+        return dependencies;
     }
 
-    private PsiElement findFunctionDefinition(String functionName) {
-        // 先检查缓存
-        if (functionCache.containsKey(functionName)) {
-            return functionCache.get(functionName);
+    private static List<String> newFunctionNames(Collection<String> names, Set<String> visited) {
+        List<String> result = new ArrayList<>();
+        for (String name : names) {
+            if (visited.add(name)) {
+                result.add(name);
+            }
         }
+        Collections.sort(result);
+        return result;
+    }
 
-        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
-        Collection<VirtualFile> files = FilenameIndex.getAllFilesByExt(project, "py", scope);
-        
-        for (VirtualFile file : files) {
-            PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
-            if (psiFile != null) {
-                Collection<PsiElement> functions = PsiTreeUtil.findChildrenOfType(psiFile, PsiElement.class);
-                for (PsiElement function : functions) {
-                    if (isFunctionDefinition(function)) {
-                        String defName = extractFunctionName(function.getText());
-                        if (defName.equals(functionName)) {
-                            functionCache.put(functionName, function);
-                            return function;
-                        }
-                    }
-                }
+    private List<ResolvedFunction> resolveAll(List<String> functionNames) {
+        List<ResolvedFunction> resolved = new ArrayList<>(functionNames.size());
+        // 调用方已持有读锁时（例如在 EDT 上），等待后台读操作可能与挂起的写操作互相等待，因此就地串行解析
+        if (functionNames.size() == 1 || ApplicationManager.getApplication().isReadAccessAllowed()) {
+            for (String name : functionNames) {
+                resolved.add(ReadAction.compute(() -> resolveFunction(name)));
             }
+            return resolved;
         }
-        
-        functionCache.put(functionName, null);
-        return null;
+
+        List<CancellablePromise<ResolvedFunction>> promises = new ArrayList<>(functionNames.size());
+        try {
+            for (String name : functionNames) {
+                promises.add(ReadAction.nonBlocking(() -> resolveFunction(name)).submit(RESOLVE_EXECUTOR));
+            }
+            for (CancellablePromise<ResolvedFunction> promise : promises) {
+                resolved.add(ProgressIndicatorUtils.awaitWithCheckCanceled(promise));
+            }
+        } finally {
+            for (CancellablePromise<ResolvedFunction> promise : promises) {
+                promise.cancel();
+            }
+        }
+        return resolved;
     }
 
-    private String extractFunctionName(String text) {
-        // 移除字符串内容，避免误判
-        text = STRING_PATTERN.matcher(text).replaceAll("");
-        
-        // 处理方法调用
-        if (text.contains(".")) {
-            String[] parts = text.split("\\.");
-            if (parts.length >= 2) {
-                String prefix = parts[0].trim();
-                // 处理self和super调用
-                if (prefix.equals("self") || prefix.equals("super()")) {
-                    String methodPart = parts[1];
-                    int bracketIndex = methodPart.indexOf('(');
-                    return bracketIndex > 0 ? methodPart.substring(0, bracketIndex).trim() : methodPart.trim();
-                }
+    private ResolvedFunction resolveFunction(String functionName) {
+        Definition definition = findFunctionDefinition(functionName);
+        if (definition == null) {
+            if (debug) {
+                LOG.info("Could not find definition for: " + functionName);
             }
-            // 获取链式调用的最后一个函数名
-            String lastPart = parts[parts.length - 1];
-            int bracketIndex = lastPart.indexOf('(');
-            return bracketIndex > 0 ? lastPart.substring(0, bracketIndex).trim() : lastPart.trim();
+            return null;
         }
-        
-        // 处理普通函数调用
-        int bracketIndex = text.indexOf('(');
-        if (bracketIndex > 0) {
-            String name = text.substring(0, bracketIndex).trim();
-            // 如果是函数定义，提取def后面的名称
-            if (name.startsWith("def ")) {
-                name = name.substring(4);
-            } else if (name.startsWith("async def ")) {
-                name = name.substring(10);
+        return extractFunctionCode(functionName, definition);
+    }
+
+    /**
+     * 在函数范围内单次字符扫描识别调用点：标识符后紧跟 "(" 即为调用，def/class 之后的名称除外。
+     * 直接扫描文件文本，字符串和注释不会被误识别，未安装 Python 插件时同样有效。
+     */
+    private static Set<String> collectCalledFunctionNames(CharSequence text, int start, int end) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : PythonSourceScanner.scanCalls(text, start, end)) {
+            if (!BUILTIN_PATTERN.matcher(name).matches() && !KEYWORDS.contains(name)) {
+                names.add(name);
             }
-            return name.trim();
         }
-        
-        return text.trim();
+        return names;
     }
 
-    private boolean isLocalFunctionCall(PsiElement element) {
-        String text = element.getText();
-        
-        // 排除字符串中的函数调用
-        if (STRING_PATTERN.matcher(text).find()) {
-            return false;
+    private Definition findFunctionDefinition(String functionName) {
+        // 先检查缓存
+        Definition cached = functionCache.get(functionName);
+        if (cached != null && cached.file.isValid() || unresolvedFunctions.contains(functionName)) {
+            stats.increment(Counter.CACHE_HITS);
+            return cached;
         }
-        
-        // 基本函数调用模式
-        if (!text.matches("[a-zA-Z_][a-zA-Z0-9_]*(\\.[a-zA-Z_][a-zA-Z0-9_]*)*\\s*\\(.*\\)")) {
-            return false;
+        if (DumbService.isDumb(project)) {
+            // 索引尚未就绪，不缓存结果，下次再试
+            return null;
         }
 
-        String functionName = extractFunctionName(text);
-        return !BUILTIN_PATTERN.matcher(functionName).matches();
-    }
-
-    private boolean isFunctionDefinition(PsiElement element) {
-        String text = element.getText().trim();
-        
-        // 处理装饰器
-        String[] lines = text.split("\n");
-        boolean hasDecorator = false;
-        
-        for (String line : lines) {
-            line = line.trim();
-            if (line.startsWith("@")) {
-                if (!DECORATOR_PATTERN.matcher(line).matches()) {
-                    hasDecorator = true;
-                }
-            } else if (line.startsWith("def ") || line.startsWith("async def ")) {
+        // 通过函数定义索引直接定位，无需遍历项目文件
+        stats.increment(Counter.LOOKUPS);
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        PsiManager psiManager = PsiManager.getInstance(project);
+        Definition[] found = new Definition[1];
+        FileBasedIndex.getInstance().processValues(FunctionDefinitionIndex.NAME, functionName, null, (file, offset) -> {
+            if (!"py".equals(file.getExtension())) {
                 return true;
             }
-        }
-        
-        return hasDecorator;
-    }
+            PsiFile psiFile = psiManager.findFile(file);
+            // 索引记录的是 def 行的偏移，直接在文件文本中从该处截取，不依赖 PSI 结构
+            found[0] = psiFile != null ? new Definition(psiFile, offset) : null;
+            return found[0] == null;
+        }, scope);
 
-    private int countBrackets(String line) {
-        int count = 0;
-        for (char c : line.toCharArray()) {
-            if (c == '(' || c == '[' || c == '{') count++;
-            if (c == ')' || c == ']' || c == '}') count--;
+        if (found[0] != null) {
+            functionCache.put(functionName, found[0]);
+        } else {
+            unresolvedFunctions.add(functionName);
         }
-        return count;
+        return found[0];
     }
 }
@@ -4,15 +4,18 @@ import com.intellij.openapi.actionSystem.ActionUpdateThread;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import org.jetbrains.annotations.NotNull;
-import java.nio.charset.StandardCharsets;
-import com.bf.copy2md.formatter.MarkdownFormatter;
-import com.bf.copy2md.util.CopyUtil;
+import org.jetbrains.annotations.Nullable;
+import com.bf.copy2md.output.MarkdownOutput;
+import com.bf.copy2md.output.MarkdownOutputs;
+import com.bf.copy2md.task.MarkdownCopyTask;
+
+import java.util.Arrays;
 
 public class CopyAllOpenedTabsAsMarkdownAction extends AnAction {
-    private final MarkdownFormatter formatter = new MarkdownFormatter();
 
     @Override
     public @NotNull ActionUpdateThread getActionUpdateThread() {
@@ -27,18 +30,17 @@ public class CopyAllOpenedTabsAsMarkdownAction extends AnAction {
         VirtualFile[] allOpenFiles = FileEditorManager.getInstance(project).getOpenFiles();
         if (allOpenFiles.length == 0) return;
 
-        StringBuilder allFilesMarkdown = new StringBuilder();
-        allFilesMarkdown.append("Project Name: ").append(project.getName()).append("\n\n");
+        MarkdownOutput output = createOutput(project);
+        if (output == null) return;
 
-        for (VirtualFile file : allOpenFiles) {
-            try {
-                String content = new String(file.contentsToByteArray(), StandardCharsets.UTF_8);
-                allFilesMarkdown.append(formatter.formatFileContent(project, file, content));
-            } catch (Exception ex) {
-                ex.printStackTrace();
-            }
-        }
+        ProgressManager.getInstance().run(new MarkdownCopyTask(project, "Copying tabs as Markdown",
+                getTemplatePresentation().getText(), Arrays.asList(allOpenFiles), "Project Name: " + project.getName() + "\n\n", output));
+    }
 
-        CopyUtil.copyToClipboardWithNotification(allFilesMarkdown.toString(), project);
+    /**
+     * Where the generated Markdown goes, or null if the user cancelled.
+     */
+    protected @Nullable MarkdownOutput createOutput(@NotNull Project project) {
+        return MarkdownOutputs.clipboard();
     }
 }
@@ -9,8 +9,16 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import org.jetbrains.annotations.NotNull;
 import com.bf.copy2md.formatter.MarkdownFormatter;
+import com.bf.copy2md.output.MarkdownOutput;
+import com.bf.copy2md.output.MarkdownOutputs;
+import com.bf.copy2md.stats.CopyRun;
+import com.bf.copy2md.stats.CopyStats;
+import com.bf.copy2md.stats.Counter;
+import com.bf.copy2md.stats.Phase;
 import com.bf.copy2md.util.CopyUtil;
 
+import java.io.IOException;
+
 public class CopyCodeAsMarkdownAction extends AnAction {
     private final MarkdownFormatter formatter = new MarkdownFormatter();
 
@@ -38,11 +46,29 @@ public class CopyCodeAsMarkdownAction extends AnAction {
             return;
         }
 
-        StringBuilder markdownBuilder = new StringBuilder();
-        markdownBuilder.append("\n");
-        markdownBuilder.append("# Project Name: ").append(project.getName()).append("\n\n");
-        markdownBuilder.append(formatter.formatFileContent(project, virtualFile, selectedText));
+        CopyRun stats = CopyStats.getInstance().start(getTemplatePresentation().getText());
+        String header = "\n# Project Name: " + project.getName() + "\n\n";
+        String relativePath = formatter.relativePath(project, virtualFile);
+        MarkdownOutput output = MarkdownOutputs.clipboard();
+        long formatStart = System.nanoTime();
+        try {
+            output.begin(header, header.length() + MarkdownFormatter.estimateFragmentSize(relativePath, selectedText.length()));
+            formatter.appendFileContent(output.fileTarget(), relativePath, virtualFile.getExtension(), selectedText);
+            output.endFile();
+            output.finish();
+        } catch (IOException ex) {
+            output.discard();
+            stats.end(CopyRun.Outcome.FAILED);
+            CopyUtil.showErrorHint(project, "Error copying selection: " + ex.getMessage());
+            return;
+        }
+        stats.record(Phase.FORMAT, formatStart);
+        stats.add(Counter.FILES, 1);
+        stats.add(Counter.OUTPUT_CHARS, selectedText.length());
 
-        CopyUtil.copyToClipboardWithNotification(markdownBuilder.toString(), project);
+        long publishStart = System.nanoTime();
+        output.publish(project);
+        stats.record(Phase.CLIPBOARD, publishStart);
+        stats.end(CopyRun.Outcome.COMPLETED);
     }
 }
@@ -0,0 +1,209 @@
+package com.bf.copy2md.action;
+
+import com.bf.copy2md.FunctionExtractor;
+import com.bf.copy2md.analysis.CallGraph;
+import com.bf.copy2md.analysis.ExtractionConfig;
+import com.bf.copy2md.analysis.FunctionCallAnalyzer;
+import com.bf.copy2md.analysis.FunctionContext;
+import com.bf.copy2md.formatter.MarkdownFormatter;
+import com.bf.copy2md.formatter.MarkdownFragment;
+import com.bf.copy2md.output.MarkdownOutput;
+import com.bf.copy2md.output.MarkdownOutputs;
+import com.bf.copy2md.settings.Copy2MdSettings;
+import com.bf.copy2md.stats.CopyRun;
+import com.bf.copy2md.stats.CopyStats;
+import com.bf.copy2md.stats.Counter;
+import com.bf.copy2md.stats.Phase;
+import com.bf.copy2md.util.CopyUtil;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Copies the function at the caret together with the functions it calls, as found by the
+ * {@link FunctionCallAnalyzer} registered for the file's language. The analysis runs in a
+ * cancellable background read action that restarts if the user types meanwhile. Python files,
+ * which have no analyzer, go through the text-based {@link FunctionExtractor} instead.
+ */
+public class CopyFunctionAction extends AnAction {
+    private static final Logger LOG = Logger.getInstance(CopyFunctionAction.class);
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        PsiElement element = elementAtCaret(e);
+        e.getPresentation().setEnabledAndVisible(element != null
+                && (FunctionCallAnalyzer.forElement(element) != null || isPython(e.getData(CommonDataKeys.PSI_FILE))));
+    }
+
+    private static boolean isPython(@Nullable PsiFile psiFile) {
+        return psiFile != null && psiFile.getVirtualFile() != null && "py".equals(psiFile.getVirtualFile().getExtension());
+    }
+
+    private static @Nullable PsiElement elementAtCaret(@NotNull AnActionEvent e) {
+        Editor editor = e.getData(CommonDataKeys.EDITOR);
+        PsiFile psiFile = e.getData(CommonDataKeys.PSI_FILE);
+        if (editor == null || psiFile == null) {
+            return null;
+        }
+        return psiFile.findElementAt(editor.getCaretModel().getOffset());
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getRequiredData(CommonDataKeys.PROJECT);
+        Editor editor = e.getRequiredData(CommonDataKeys.EDITOR);
+        PsiFile psiFile = e.getRequiredData(CommonDataKeys.PSI_FILE);
+        int offset = editor.getCaretModel().getOffset();
+        CopyRun stats = CopyStats.getInstance().start(getTemplatePresentation().getText());
+        VirtualFile virtualFile = psiFile.getVirtualFile();
+        boolean python = isPython(psiFile);
+        int tokenBudget = Copy2MdSettings.getInstance().getFunctionTokenBudget();
+        ExtractionConfig config = new ExtractionConfig()
+                .setTokenBudget(tokenBudget)
+                .setStats(stats);
+        MarkdownOutput output = MarkdownOutputs.clipboard();
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Copying function as Markdown", true) {
+            private CallGraph graph = CallGraph.EMPTY;
+            // Function and dependencies from the FunctionExtractor, for Python files
+            private String pythonFunction;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setText("Resolving calls...");
+                long resolveStart = System.nanoTime();
+                graph = ReadAction.nonBlocking(() -> analyze(psiFile, offset, config))
+                        .wrapProgress(indicator)
+                        .executeSynchronously();
+                List<FunctionContext> functions = graph.getFunctions();
+                if (functions.isEmpty() && python) {
+                    FunctionExtractor extractor = new FunctionExtractor(project);
+                    extractor.setTokenBudget(tokenBudget);
+                    extractor.setStats(stats);
+                    pythonFunction = extractor.extractFunction(psiFile, offset);
+                }
+                stats.record(Phase.RESOLVE, resolveStart);
+                if (pythonFunction != null) {
+                    writePythonFunction();
+                    return;
+                }
+                if (functions.isEmpty()) {
+                    return;
+                }
+
+                MarkdownFormatter formatter = new MarkdownFormatter();
+                String header = MarkdownFragment.projectHeader(project.getName());
+                Set<String> filesWithImports = new HashSet<>();
+                long formatStart = System.nanoTime();
+                try {
+                    output.begin(header, header.length() + estimateSize(functions));
+                    for (FunctionContext function : functions) {
+                        formatter.appendFunction(output.fileTarget(), function, filesWithImports.add(function.getFilePath()));
+                        output.endFile();
+                        stats.add(Counter.OUTPUT_CHARS, function.getCode().length());
+                    }
+                    if (graph.getOmittedCount() > 0) {
+                        formatter.appendOmittedDependencies(output.fileTarget(), graph.getOmittedCount());
+                        output.endFile();
+                    }
+                    stats.record(Phase.FORMAT, formatStart);
+                    long finishStart = System.nanoTime();
+                    output.finish();
+                    stats.record(Phase.WRITE, finishStart);
+                    stats.add(Counter.FILES, filesWithImports.size());
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+
+            private void writePythonFunction() {
+                MarkdownFormatter formatter = new MarkdownFormatter();
+                String header = MarkdownFragment.projectHeader(project.getName());
+                String relativePath = formatter.relativePath(project, virtualFile);
+                long formatStart = System.nanoTime();
+                try {
+                    output.begin(header, header.length() + MarkdownFragment.estimateSize(relativePath, pythonFunction.length()));
+                    formatter.appendFileContent(output.fileTarget(), relativePath, "python", pythonFunction.stripTrailing());
+                    output.endFile();
+                    stats.record(Phase.FORMAT, formatStart);
+                    long finishStart = System.nanoTime();
+                    output.finish();
+                    stats.record(Phase.WRITE, finishStart);
+                    stats.add(Counter.FILES, 1);
+                    stats.add(Counter.OUTPUT_CHARS, pythonFunction.length());
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                if (graph.getFunctions().isEmpty() && pythonFunction == null) {
+                    stats.end(CopyRun.Outcome.COMPLETED);
+                    CopyUtil.showErrorHint(project, "No function found at the caret");
+                    return;
+                }
+                long publishStart = System.nanoTime();
+                output.publish(project);
+                stats.record(Phase.CLIPBOARD, publishStart);
+                stats.end(CopyRun.Outcome.COMPLETED);
+                LOG.info(pythonFunction != null ? "Copied Python function" : "Copied " + graph.getFunctions().size() + " function(s)");
+            }
+
+            @Override
+            public void onCancel() {
+                output.discard();
+                stats.end(CopyRun.Outcome.CANCELLED);
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                output.discard();
+                stats.end(CopyRun.Outcome.FAILED);
+                LOG.warn("Error copying function: " + error.getMessage(), error);
+                CopyUtil.showErrorHint(project, "Error copying function: " + error.getMessage());
+            }
+        });
+    }
+
+    private static @NotNull CallGraph analyze(@NotNull PsiFile psiFile, int offset, @NotNull ExtractionConfig config) {
+        PsiElement element = psiFile.isValid() ? psiFile.findElementAt(offset) : null;
+        FunctionCallAnalyzer analyzer = element != null ? FunctionCallAnalyzer.forElement(element) : null;
+        return analyzer != null ? analyzer.analyzeFunctionCalls(element, config) : CallGraph.EMPTY;
+    }
+
+    private static long estimateSize(@NotNull List<FunctionContext> functions) {
+        long size = 0;
+        for (FunctionContext function : functions) {
+            size += MarkdownFragment.estimateSize(function.getName() + function.getFilePath(), function.getCode().length());
+            if (function.getImports() != null) {
+                size += function.getImports().length();
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,13 @@
+package com.bf.copy2md.action;
+
+/**
+ * Same selection handling as {@link CopyFileAsMarkdownAction}, but copies only the declarations
+ * of each file: class, function and field signatures with the first line of their docs.
+ */
+public class CopyOutlineAsMarkdownAction extends CopyFileAsMarkdownAction {
+
+    @Override
+    protected boolean isOutline() {
+        return true;
+    }
+}
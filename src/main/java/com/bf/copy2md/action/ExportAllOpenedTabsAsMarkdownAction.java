@@ -0,0 +1,22 @@
+package com.bf.copy2md.action;
+
+import com.bf.copy2md.output.MarkdownOutput;
+import com.bf.copy2md.output.MarkdownOutputs;
+import com.bf.copy2md.util.CopyUtil;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+
+/**
+ * Same as {@link CopyAllOpenedTabsAsMarkdownAction}, but streams the result to a Markdown file.
+ */
+public class ExportAllOpenedTabsAsMarkdownAction extends CopyAllOpenedTabsAsMarkdownAction {
+
+    @Override
+    protected @Nullable MarkdownOutput createOutput(@NotNull Project project) {
+        Path target = CopyUtil.chooseExportFile(project, project.getName() + "-tabs.md");
+        return target != null ? MarkdownOutputs.file(target) : null;
+    }
+}
@@ -0,0 +1,113 @@
+package com.bf.copy2md.action;
+
+import com.intellij.ide.projectView.ProjectViewNode;
+import com.intellij.ide.projectView.impl.nodes.PsiFileNode;
+import com.intellij.openapi.actionSystem.ActionPlaces;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Files and directories an action event refers to. The data keys are tried in a fixed order and
+ * the first one that yields anything wins, so {@link #isEmpty} and {@link #resolve} always agree.
+ * {@code isEmpty} stops at the first usable entry and is cheap enough for {@code update()} on
+ * selections of any size; directories are returned as they are and expanded later.
+ */
+final class FileSelection {
+    private FileSelection() {
+    }
+
+    static boolean isEmpty(@NotNull AnActionEvent e) {
+        return collect(e, true).isEmpty();
+    }
+
+    static @NotNull List<VirtualFile> resolve(@NotNull AnActionEvent e) {
+        return new ArrayList<>(collect(e, false));
+    }
+
+    private static Set<VirtualFile> collect(AnActionEvent e, boolean firstOnly) {
+        Set<VirtualFile> files = new LinkedHashSet<>();
+
+        VirtualFile[] selectedFiles = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        if (selectedFiles != null && addAll(files, selectedFiles, firstOnly)) {
+            return files;
+        }
+
+        if (add(files, e.getData(CommonDataKeys.VIRTUAL_FILE))) {
+            return files;
+        }
+
+        PsiElement[] psiElements = e.getData(LangDataKeys.PSI_ELEMENT_ARRAY);
+        if (psiElements != null && addAll(files, psiElements, firstOnly)) {
+            return files;
+        }
+
+        if (add(files, toFile(e.getData(LangDataKeys.PSI_ELEMENT)))) {
+            return files;
+        }
+
+        // The editor is only a fallback in editor menus; elsewhere it is whatever file happens to be open
+        if (ActionPlaces.EDITOR_POPUP.equals(e.getPlace()) || ActionPlaces.EDITOR_TAB_POPUP.equals(e.getPlace())) {
+            Editor editor = e.getData(CommonDataKeys.EDITOR);
+            VirtualFile fileFromDoc = editor != null ? FileDocumentManager.getInstance().getFile(editor.getDocument()) : null;
+            if (fileFromDoc != null && !fileFromDoc.isDirectory() && add(files, fileFromDoc)) {
+                return files;
+            }
+        }
+
+        // Project View nodes that expose neither a file nor a PSI file through the keys above
+        Object[] navigatables = e.getData(CommonDataKeys.NAVIGATABLE_ARRAY);
+        if (navigatables != null) {
+            addAll(files, navigatables, firstOnly);
+        }
+        return files;
+    }
+
+    private static boolean addAll(Set<VirtualFile> files, Object[] items, boolean firstOnly) {
+        for (Object item : items) {
+            if (add(files, toFile(item)) && firstOnly) {
+                return true;
+            }
+        }
+        return !files.isEmpty();
+    }
+
+    private static boolean add(Set<VirtualFile> files, @Nullable VirtualFile file) {
+        if (file == null || !file.isValid()) {
+            return false;
+        }
+        files.add(file);
+        return true;
+    }
+
+    private static @Nullable VirtualFile toFile(@Nullable Object item) {
+        if (item instanceof VirtualFile file) {
+            return file;
+        }
+        if (item instanceof PsiFile psiFile) {
+            return psiFile.getVirtualFile();
+        }
+        if (item instanceof ProjectViewNode<?> node) {
+            VirtualFile file = node.getVirtualFile();
+            // 文件节点的 getVirtualFile() 可能为空或返回所在目录，此时从 PsiFile 取
+            if ((file == null || file.isDirectory()) && node instanceof PsiFileNode fileNode
+                    && fileNode.getValue() != null) {
+                return fileNode.getValue().getVirtualFile();
+            }
+            return file;
+        }
+        return null;
+    }
+}
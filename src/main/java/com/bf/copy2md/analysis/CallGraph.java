@@ -0,0 +1,30 @@
+package com.bf.copy2md.analysis;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Result of a {@link FunctionCallAnalyzer} run, detached from the PSI like its functions.
+ */
+public final class CallGraph {
+    public static final CallGraph EMPTY = new CallGraph(List.of(), 0);
+
+    private final List<FunctionContext> functions;
+    private final int omittedCount;
+
+    public CallGraph(@NotNull List<FunctionContext> functions, int omittedCount) {
+        this.functions = functions;
+        this.omittedCount = omittedCount;
+    }
+
+    /** The analyzed function first, then its callees level by level; empty if there is none. */
+    public @NotNull List<FunctionContext> getFunctions() {
+        return functions;
+    }
+
+    /** Callees left out because they did not fit the config's token budget. */
+    public int getOmittedCount() {
+        return omittedCount;
+    }
+}
@@ -0,0 +1,75 @@
+package com.bf.copy2md.analysis;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The breadth-first walk shared by the {@link FunctionCallAnalyzer}s: starting at the analyzed
+ * function, the callees of one level are collected, the ones that fit the config's token budget
+ * are kept, and only those are expanded into the next level. The walk stops at
+ * {@link ExtractionConfig#getMaxDepth()}, {@link ExtractionConfig#getMaxFunctions()} or when the
+ * budget is spent. Analyzers supply how to find a function's callees and how to turn a function
+ * into a {@link FunctionContext}; its code is what the budget is charged for.
+ *
+ * @param <T> the analyzer's function handle
+ */
+final class CallGraphWalk<T> {
+    private final ExtractionConfig config;
+    private final Function<T, ?> key;
+    private final Function<T, List<T>> callees;
+    private final BiFunction<T, Integer, FunctionContext> toContext;
+
+    /**
+     * @param key       identity of a function, so each one is visited once
+     * @param callees   relevant functions called by a function, in call order
+     * @param toContext the function's context at the given depth
+     */
+    CallGraphWalk(@NotNull ExtractionConfig config, @NotNull Function<T, ?> key,
+                  @NotNull Function<T, List<T>> callees, @NotNull BiFunction<T, Integer, FunctionContext> toContext) {
+        this.config = config;
+        this.key = key;
+        this.callees = callees;
+        this.toContext = toContext;
+    }
+
+    /**
+     * @return {@code root} first, then its callees level by level, with the number of callees the
+     *         budget left out
+     */
+    @NotNull CallGraph walk(@NotNull T root) {
+        List<FunctionContext> result = new ArrayList<>();
+        FunctionContext rootContext = toContext.apply(root, 0);
+        result.add(rootContext);
+        DependencyBudget budget = config.createBudget();
+        budget.charge(rootContext.getCode());
+        Set<Object> visited = new HashSet<>();
+        visited.add(key.apply(root));
+
+        List<T> level = List.of(root);
+        for (int depth = 1; depth <= config.getMaxDepth() && !level.isEmpty() && !budget.isSpent(); depth++) {
+            Map<T, FunctionContext> candidates = new LinkedHashMap<>();
+            for (T function : level) {
+                for (T callee : callees.apply(function)) {
+                    if (visited.add(key.apply(callee))) {
+                        candidates.put(callee, toContext.apply(callee, depth));
+                    }
+                }
+            }
+
+            // Only the callees that fit are expanded further
+            List<T> nextLevel = budget.select(new ArrayList<>(candidates.keySet()),
+                    callee -> candidates.get(callee).getCode());
+            for (T callee : nextLevel) {
+                if (result.size() >= config.getMaxFunctions()) {
+                    return new CallGraph(result, budget.getSkippedCount());
+                }
+                result.add(candidates.get(callee));
+            }
+            level = nextLevel;
+        }
+        return new CallGraph(result, budget.getSkippedCount());
+    }
+}
@@ -0,0 +1,102 @@
+package com.bf.copy2md.analysis;
+
+import com.bf.copy2md.stats.CopyRun;
+
+/**
+ * Options of a {@link FunctionCallAnalyzer} run. Setters return {@code this} for chaining.
+ */
+public class ExtractionConfig {
+    private int maxDepth = 3;
+    private int maxFunctions = 200;
+    private int tokenBudget = 0;
+    private boolean includeTests = false;
+    private boolean includeComments = true;
+    private boolean includeImports = false;
+    private boolean includeAccessors = false;
+    private CopyRun stats = CopyRun.detached();
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /** Call levels followed below the analyzed function. */
+    public ExtractionConfig setMaxDepth(int maxDepth) {
+        this.maxDepth = Math.max(0, maxDepth);
+        return this;
+    }
+
+    public int getMaxFunctions() {
+        return maxFunctions;
+    }
+
+    /** Upper bound on collected functions, so a hub method cannot pull in the whole project. */
+    public ExtractionConfig setMaxFunctions(int maxFunctions) {
+        this.maxFunctions = Math.max(1, maxFunctions);
+        return this;
+    }
+
+    public int getTokenBudget() {
+        return tokenBudget;
+    }
+
+    /**
+     * Estimated tokens for the function and its dependencies together, 0 for no limit. Closer
+     * callees win over deeper ones and, within a level, smaller ones over larger ones.
+     */
+    public ExtractionConfig setTokenBudget(int tokenBudget) {
+        this.tokenBudget = Math.max(0, tokenBudget);
+        return this;
+    }
+
+    public DependencyBudget createBudget() {
+        return DependencyBudget.tokens(tokenBudget);
+    }
+
+    public boolean isIncludeTests() {
+        return includeTests;
+    }
+
+    public ExtractionConfig setIncludeTests(boolean includeTests) {
+        this.includeTests = includeTests;
+        return this;
+    }
+
+    public boolean isIncludeComments() {
+        return includeComments;
+    }
+
+    /** Keep doc comments in front of functions. */
+    public ExtractionConfig setIncludeComments(boolean includeComments) {
+        this.includeComments = includeComments;
+        return this;
+    }
+
+    public boolean isIncludeImports() {
+        return includeImports;
+    }
+
+    public ExtractionConfig setIncludeImports(boolean includeImports) {
+        this.includeImports = includeImports;
+        return this;
+    }
+
+    public boolean isIncludeAccessors() {
+        return includeAccessors;
+    }
+
+    /** Follow plain getters and setters; off by default since they add noise, not context. */
+    public ExtractionConfig setIncludeAccessors(boolean includeAccessors) {
+        this.includeAccessors = includeAccessors;
+        return this;
+    }
+
+    public CopyRun getStats() {
+        return stats;
+    }
+
+    /** Run that reference lookups and memo hits are counted in. */
+    public ExtractionConfig setStats(CopyRun stats) {
+        this.stats = stats;
+        return this;
+    }
+}
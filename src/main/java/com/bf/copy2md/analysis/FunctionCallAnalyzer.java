@@ -0,0 +1,36 @@
+package com.bf.copy2md.analysis;
+
+import com.intellij.openapi.extensions.ExtensionPointName;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Collects a function and the functions it calls, transitively, for one language. Registered
+ * through the {@code com.bf.copy2md.functionCallAnalyzer} extension point so language support
+ * can live in optional plugin configs. Implementations are stateless; anything memoized during
+ * one analysis is dropped when it returns. Both methods must be called inside a read action.
+ */
+public interface FunctionCallAnalyzer {
+    ExtensionPointName<FunctionCallAnalyzer> EP_NAME = ExtensionPointName.create("com.bf.copy2md.functionCallAnalyzer");
+
+    /**
+     * True if {@code element} is, or lies inside, a function this analyzer understands.
+     */
+    boolean isApplicable(@NotNull PsiElement element);
+
+    /**
+     * @return the function enclosing {@code element} and its callees; {@link CallGraph#EMPTY} if
+     *         there is no enclosing function
+     */
+    @NotNull CallGraph analyzeFunctionCalls(@NotNull PsiElement element, @NotNull ExtractionConfig config);
+
+    static @Nullable FunctionCallAnalyzer forElement(@NotNull PsiElement element) {
+        for (FunctionCallAnalyzer analyzer : EP_NAME.getExtensionList()) {
+            if (analyzer.isApplicable(element)) {
+                return analyzer;
+            }
+        }
+        return null;
+    }
+}
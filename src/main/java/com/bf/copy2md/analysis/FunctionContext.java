@@ -0,0 +1,56 @@
+package com.bf.copy2md.analysis;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * One function found by a {@link FunctionCallAnalyzer}, detached from the PSI so it can be used
+ * after the read action ends.
+ */
+public final class FunctionContext {
+    private final String name;
+    private final String filePath;
+    private final String language;
+    private final String code;
+    private final @Nullable String imports;
+    private final int depth;
+
+    public FunctionContext(@NotNull String name, @NotNull String filePath, @NotNull String language,
+                           @NotNull String code, @Nullable String imports, int depth) {
+        this.name = name;
+        this.filePath = filePath;
+        this.language = language;
+        this.code = code;
+        this.imports = imports;
+        this.depth = depth;
+    }
+
+    /** Display name, e.g. {@code OrderService.processOrder(Order)}. */
+    public @NotNull String getName() {
+        return name;
+    }
+
+    /** Path of the containing file, relative to the project when possible. */
+    public @NotNull String getFilePath() {
+        return filePath;
+    }
+
+    /** Code fence language. */
+    public @NotNull String getLanguage() {
+        return language;
+    }
+
+    public @NotNull String getCode() {
+        return code;
+    }
+
+    /** Import section of the containing file, if requested by the {@link ExtractionConfig}. */
+    public @Nullable String getImports() {
+        return imports;
+    }
+
+    /** 0 for the analyzed function, 1 for its direct callees, and so on. */
+    public int getDepth() {
+        return depth;
+    }
+}
@@ -0,0 +1,143 @@
+package com.bf.copy2md.analysis;
+
+import com.bf.copy2md.stats.Counter;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Go implementation of {@link FunctionCallAnalyzer} that works on plain text, with or without
+ * the Go plugin. Calls found by {@link GoSourceScanner} are resolved through {@link GoSymbolTable}:
+ * {@code f()} in the caller's package, {@code pkg.F()} in an imported package of the same module,
+ * and {@code x.M()} against methods of the caller's package, preferring the caller's own
+ * receiver type. Calls that stay ambiguous without type information are not followed.
+ */
+public class GoFunctionCallAnalyzer implements FunctionCallAnalyzer {
+
+    @Override
+    public boolean isApplicable(@NotNull PsiElement element) {
+        PsiFile file = element.getContainingFile();
+        VirtualFile virtualFile = file != null ? file.getVirtualFile() : null;
+        return virtualFile != null && "go".equals(virtualFile.getExtension());
+    }
+
+    @Override
+    public @NotNull CallGraph analyzeFunctionCalls(@NotNull PsiElement element, @NotNull ExtractionConfig config) {
+        VirtualFile file = element.getContainingFile().getVirtualFile();
+        GoSymbolTable table = GoSymbolTable.getInstance(element.getProject());
+        GoSymbolTable.FileSymbols fileSymbols = file != null ? table.fileSymbols(file) : null;
+        GoSourceScanner.Function function = fileSymbols != null
+                ? fileSymbols.functionAt(element.getTextRange().getStartOffset()) : null;
+        if (function == null) {
+            return CallGraph.EMPTY;
+        }
+        return new Session(element.getProject(), table, config).analyze(new GoSymbolTable.Symbol(fileSymbols, function));
+    }
+
+    private static final class Session {
+        private final GoSymbolTable table;
+        private final ExtractionConfig config;
+        private final @Nullable VirtualFile projectDir;
+        // Symbols are keyed by declaration, so every function is walked once per session
+        private final Map<GoSourceScanner.Function, List<GoSymbolTable.Symbol>> calleeMemo = new HashMap<>();
+
+        Session(@NotNull Project project, @NotNull GoSymbolTable table, @NotNull ExtractionConfig config) {
+            this.table = table;
+            this.config = config;
+            this.projectDir = ProjectUtil.guessProjectDir(project);
+        }
+
+        CallGraph analyze(@NotNull GoSymbolTable.Symbol root) {
+            return new CallGraphWalk<GoSymbolTable.Symbol>(config, symbol -> symbol.function, this::calleesOf, this::toContext)
+                    .walk(root);
+        }
+
+        private List<GoSymbolTable.Symbol> calleesOf(@NotNull GoSymbolTable.Symbol caller) {
+            List<GoSymbolTable.Symbol> cached = calleeMemo.get(caller.function);
+            if (cached != null) {
+                config.getStats().increment(Counter.CACHE_HITS);
+                return cached;
+            }
+            ProgressManager.checkCanceled();
+            Set<GoSymbolTable.Symbol> callees = new LinkedHashSet<>();
+            GoSourceScanner.Function function = caller.function;
+            for (GoSourceScanner.Call call : GoSourceScanner.scanCalls(caller.file.text, function.bodyStart, function.end)) {
+                config.getStats().increment(Counter.LOOKUPS);
+                GoSymbolTable.Symbol callee = resolve(call, caller);
+                if (callee != null && callee.function != function && isRelevant(callee)) {
+                    callees.add(callee);
+                }
+            }
+            List<GoSymbolTable.Symbol> result = new ArrayList<>(callees);
+            calleeMemo.put(function, result);
+            return result;
+        }
+
+        private @Nullable GoSymbolTable.Symbol resolve(@NotNull GoSourceScanner.Call call, @NotNull GoSymbolTable.Symbol caller) {
+            VirtualFile directory = caller.file.file.getParent();
+            if (directory == null) {
+                return null;
+            }
+            String packageName = caller.file.packageName;
+            if (call.qualifier == null) {
+                return unique(table.packageOf(directory).functions(call.name, packageName));
+            }
+
+            String importPath = caller.file.imports.get(call.qualifier);
+            if (importPath != null) {
+                VirtualFile packageDirectory = table.findPackageDirectory(importPath, directory);
+                if (packageDirectory == null) {
+                    return null;
+                }
+                return unique(table.packageOf(packageDirectory).importableFunctions(call.name));
+            }
+
+            // Method call: without types, only the caller's own receiver or a unique name is safe
+            List<GoSymbolTable.Symbol> methods = table.packageOf(directory).methods(call.name, packageName);
+            if (call.qualifier.equals(caller.function.receiverName)) {
+                List<GoSymbolTable.Symbol> sameReceiver = new ArrayList<>();
+                for (GoSymbolTable.Symbol method : methods) {
+                    if (method.function.receiverType.equals(caller.function.receiverType)) {
+                        sameReceiver.add(method);
+                    }
+                }
+                return unique(sameReceiver);
+            }
+            return unique(methods);
+        }
+
+        private static @Nullable GoSymbolTable.Symbol unique(@NotNull List<GoSymbolTable.Symbol> candidates) {
+            return candidates.size() == 1 ? candidates.get(0) : null;
+        }
+
+        private boolean isRelevant(@NotNull GoSymbolTable.Symbol symbol) {
+            return config.isIncludeTests() || !symbol.file.file.getName().endsWith("_test.go");
+        }
+
+        private FunctionContext toContext(@NotNull GoSymbolTable.Symbol symbol, int depth) {
+            GoSourceScanner.Function function = symbol.function;
+            String name = function.receiverType != null ? function.receiverType + "." + function.name : function.name;
+            VirtualFile file = symbol.file.file;
+            String path = projectDir != null && VfsUtilCore.isAncestor(projectDir, file, true)
+                    ? VfsUtilCore.getRelativePath(file, projectDir, '/')
+                    : file.getPath();
+            int start = config.isIncludeComments() ? function.start : function.declarationStart;
+            String code = symbol.file.text.subSequence(start, function.end).toString();
+
+            String imports = null;
+            int[] importsRange = config.isIncludeImports() ? GoSourceScanner.importsRange(symbol.file.text) : null;
+            if (importsRange != null) {
+                imports = symbol.file.text.subSequence(importsRange[0], importsRange[1]).toString();
+            }
+            return new FunctionContext(name, path, "go", code, imports, depth);
+        }
+    }
+}
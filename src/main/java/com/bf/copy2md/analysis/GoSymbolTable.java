@@ -0,0 +1,259 @@
+package com.bf.copy2md.analysis;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.PathUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Go functions and methods per package directory, lexed with {@link GoSourceScanner} so no Go
+ * plugin is needed. A package is scanned once, on first use, after which resolving a callee is a
+ * hash lookup. Any change to a {@code .go} file, on disk or in an open editor, drops the table of
+ * its directory; it is rebuilt the next time it is asked for. Must be used inside a read action.
+ */
+@Service(Service.Level.PROJECT)
+public final class GoSymbolTable implements Disposable {
+    private static final String GO_MOD = "go.mod";
+
+    private final Map<String, PackageSymbols> packages = new ConcurrentHashMap<>();
+    // Module path declared by the nearest go.mod, per module root directory
+    private final Map<String, String> modulePaths = new ConcurrentHashMap<>();
+    // Bumped on every invalidation, so a table built from stale text is not stored
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * One {@code .go} file: its text and what the scanner found in it.
+     */
+    public static final class FileSymbols {
+        public final VirtualFile file;
+        public final CharSequence text;
+        public final String packageName;
+        public final Map<String, String> imports;
+        public final List<GoSourceScanner.Function> functions;
+
+        FileSymbols(VirtualFile file, CharSequence text) {
+            this.file = file;
+            this.text = text;
+            this.packageName = Objects.requireNonNullElse(GoSourceScanner.packageName(text), "");
+            this.imports = GoSourceScanner.imports(text);
+            this.functions = GoSourceScanner.scanFunctions(text);
+        }
+
+        public @Nullable GoSourceScanner.Function functionAt(int offset) {
+            for (GoSourceScanner.Function function : functions) {
+                if (offset >= function.start && offset < function.end) {
+                    return function;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A function or method together with the file it is declared in.
+     */
+    public static final class Symbol {
+        public final FileSymbols file;
+        public final GoSourceScanner.Function function;
+
+        Symbol(FileSymbols file, GoSourceScanner.Function function) {
+            this.file = file;
+            this.function = function;
+        }
+    }
+
+    /**
+     * Symbols of all {@code .go} files in one directory.
+     */
+    public static final class PackageSymbols {
+        private final Map<VirtualFile, FileSymbols> files = new HashMap<>();
+        private final Map<String, List<Symbol>> functions = new HashMap<>();
+        private final Map<String, List<Symbol>> methods = new HashMap<>();
+
+        private void add(FileSymbols fileSymbols) {
+            files.put(fileSymbols.file, fileSymbols);
+            for (GoSourceScanner.Function function : fileSymbols.functions) {
+                Map<String, List<Symbol>> target = function.receiverType == null ? functions : methods;
+                target.computeIfAbsent(function.name, key -> new ArrayList<>(1)).add(new Symbol(fileSymbols, function));
+            }
+        }
+
+        public @Nullable FileSymbols file(@NotNull VirtualFile file) {
+            return files.get(file);
+        }
+
+        /** Package-level functions named {@code name} in package {@code packageName}. */
+        public @NotNull List<Symbol> functions(@NotNull String name, @NotNull String packageName) {
+            return filter(functions.get(name), packageName);
+        }
+
+        /** Package-level functions named {@code name} as seen by importers, i.e. outside external test packages. */
+        public @NotNull List<Symbol> importableFunctions(@NotNull String name) {
+            List<Symbol> symbols = functions.getOrDefault(name, List.of());
+            List<Symbol> result = new ArrayList<>(symbols.size());
+            for (Symbol symbol : symbols) {
+                if (!symbol.file.packageName.endsWith("_test")) {
+                    result.add(symbol);
+                }
+            }
+            return result;
+        }
+
+        /** Methods named {@code name}, on any receiver type, in package {@code packageName}. */
+        public @NotNull List<Symbol> methods(@NotNull String name, @NotNull String packageName) {
+            return filter(methods.get(name), packageName);
+        }
+
+        private static List<Symbol> filter(@Nullable List<Symbol> symbols, String packageName) {
+            if (symbols == null) {
+                return List.of();
+            }
+            // External test files share the directory but not the package
+            List<Symbol> result = new ArrayList<>(symbols.size());
+            for (Symbol symbol : symbols) {
+                if (symbol.file.packageName.equals(packageName)) {
+                    result.add(symbol);
+                }
+            }
+            return result;
+        }
+    }
+
+    public GoSymbolTable(@NotNull Project project) {
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    VirtualFile file = event.getFile();
+                    if (file != null && file.isDirectory()) {
+                        clear();
+                        return;
+                    }
+                    invalidatePath(event.getPath());
+                    if (event instanceof VFileMoveEvent move) {
+                        invalidatePath(move.getOldPath());
+                    } else if (event instanceof VFilePropertyChangeEvent change && change.isRename()) {
+                        invalidatePath(change.getOldPath());
+                    }
+                }
+            }
+        });
+        EditorFactory.getInstance().getEventMulticaster().addDocumentListener(new DocumentListener() {
+            @Override
+            public void documentChanged(@NotNull DocumentEvent event) {
+                VirtualFile file = FileDocumentManager.getInstance().getFile(event.getDocument());
+                if (file != null) {
+                    invalidatePath(file.getPath());
+                }
+            }
+        }, this);
+    }
+
+    public static GoSymbolTable getInstance(@NotNull Project project) {
+        return project.getService(GoSymbolTable.class);
+    }
+
+    public @NotNull PackageSymbols packageOf(@NotNull VirtualFile directory) {
+        PackageSymbols cached = packages.get(directory.getPath());
+        if (cached != null) {
+            return cached;
+        }
+        long startGeneration = generation.get();
+        PackageSymbols built = new PackageSymbols();
+        for (VirtualFile child : directory.getChildren()) {
+            if (!child.isDirectory() && "go".equals(child.getExtension())) {
+                built.add(new FileSymbols(child, loadText(child)));
+            }
+        }
+        if (generation.get() == startGeneration) {
+            packages.putIfAbsent(directory.getPath(), built);
+        }
+        return built;
+    }
+
+    public @Nullable FileSymbols fileSymbols(@NotNull VirtualFile file) {
+        VirtualFile directory = file.getParent();
+        return directory != null ? packageOf(directory).file(file) : null;
+    }
+
+    /**
+     * Directory of a package imported as {@code importPath} from {@code fromDirectory}, if it
+     * belongs to the same module; standard library and third-party packages are not resolved.
+     */
+    public @Nullable VirtualFile findPackageDirectory(@NotNull String importPath, @NotNull VirtualFile fromDirectory) {
+        for (VirtualFile dir = fromDirectory; dir != null; dir = dir.getParent()) {
+            VirtualFile goMod = dir.findChild(GO_MOD);
+            if (goMod == null || goMod.isDirectory()) {
+                continue;
+            }
+            String modulePath = modulePaths.computeIfAbsent(dir.getPath(), key -> readModulePath(goMod));
+            if (importPath.equals(modulePath)) {
+                return dir;
+            }
+            if (!modulePath.isEmpty() && importPath.startsWith(modulePath + "/")) {
+                return dir.findFileByRelativePath(importPath.substring(modulePath.length() + 1));
+            }
+            return null;
+        }
+        return null;
+    }
+
+    private static String readModulePath(@NotNull VirtualFile goMod) {
+        try {
+            for (String line : VfsUtilCore.loadText(goMod).split("\n")) {
+                line = line.trim();
+                if (line.startsWith("module ")) {
+                    return line.substring(7).trim().replace("\"", "");
+                }
+            }
+        } catch (IOException ignored) {
+        }
+        return "";
+    }
+
+    private static CharSequence loadText(@NotNull VirtualFile file) {
+        Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+        return document != null ? document.getImmutableCharSequence() : LoadTextUtil.loadText(file);
+    }
+
+    private void invalidatePath(@NotNull String path) {
+        if (path.endsWith(".go")) {
+            generation.incrementAndGet();
+            packages.remove(PathUtil.getParentPath(path));
+        } else if (path.endsWith(GO_MOD)) {
+            generation.incrementAndGet();
+            modulePaths.remove(PathUtil.getParentPath(path));
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        packages.clear();
+        modulePaths.clear();
+    }
+
+    @Override
+    public void dispose() {
+        clear();
+    }
+}
@@ -0,0 +1,187 @@
+package com.bf.copy2md.analysis;
+
+import com.bf.copy2md.stats.Counter;
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.javadoc.PsiDocComment;
+import com.intellij.psi.util.PropertyUtilBase;
+import com.intellij.psi.util.PsiFormatUtil;
+import com.intellij.psi.util.PsiFormatUtilBase;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtilCore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Java implementation of {@link FunctionCallAnalyzer} on top of the IDE's own reference
+ * resolution. Method calls, static calls, constructor calls and method references are resolved
+ * with the PSI, so overloads and imports are handled exactly as in the editor. The call graph is
+ * walked breadth-first up to {@link ExtractionConfig#getMaxDepth()}, within the config's token
+ * budget, and only methods with a body in project sources are followed; library, JDK and (by
+ * default) test methods are not.
+ */
+public class JavaFunctionCallAnalyzer implements FunctionCallAnalyzer {
+    // Methods every class inherits from Object with their arity (-1: any); calls to them are
+    // dropped by name, before anything is resolved
+    private static final Map<String, Integer> OBJECT_METHODS = Map.of(
+            "equals", 1, "hashCode", 0, "toString", 0, "getClass", 0, "clone", 0,
+            "finalize", 0, "notify", 0, "notifyAll", 0, "wait", -1);
+    private static final int NAME_OPTIONS = PsiFormatUtilBase.SHOW_NAME | PsiFormatUtilBase.SHOW_PARAMETERS
+            | PsiFormatUtilBase.SHOW_CONTAINING_CLASS;
+
+    @Override
+    public boolean isApplicable(@NotNull PsiElement element) {
+        return element.getLanguage().isKindOf(JavaLanguage.INSTANCE) && enclosingMethod(element) != null;
+    }
+
+    @Override
+    public @NotNull CallGraph analyzeFunctionCalls(@NotNull PsiElement element, @NotNull ExtractionConfig config) {
+        PsiMethod root = enclosingMethod(element);
+        if (root == null) {
+            return CallGraph.EMPTY;
+        }
+        return new Session(element.getProject(), config).analyze(root);
+    }
+
+    private static @Nullable PsiMethod enclosingMethod(@NotNull PsiElement element) {
+        return PsiTreeUtil.getParentOfType(element, PsiMethod.class, false);
+    }
+
+    /**
+     * @param argumentCount number of call arguments, or -1 when unknown (method references)
+     */
+    private static boolean isObjectMethodCall(@Nullable String name, int argumentCount) {
+        Integer arity = name != null ? OBJECT_METHODS.get(name) : null;
+        return arity != null && (arity < 0 || argumentCount < 0 || arity == argumentCount);
+    }
+
+    /**
+     * State of one analysis. Both memos live as long as the session, so a method called from
+     * many places is walked and classified once.
+     */
+    private static final class Session {
+        private final ExtractionConfig config;
+        private final ProjectFileIndex fileIndex;
+        private final @Nullable VirtualFile projectDir;
+        private final Map<PsiMethod, List<PsiMethod>> calleeMemo = new HashMap<>();
+        private final Map<PsiMethod, Boolean> relevanceMemo = new HashMap<>();
+
+        Session(@NotNull Project project, @NotNull ExtractionConfig config) {
+            this.config = config;
+            this.fileIndex = ProjectFileIndex.getInstance(project);
+            this.projectDir = ProjectUtil.guessProjectDir(project);
+        }
+
+        CallGraph analyze(@NotNull PsiMethod root) {
+            return new CallGraphWalk<PsiMethod>(config, method -> method, this::calleesOf, this::toContext).walk(root);
+        }
+
+        /**
+         * Relevant methods called from {@code method}'s body, in call order, each once.
+         */
+        private List<PsiMethod> calleesOf(@NotNull PsiMethod method) {
+            List<PsiMethod> cached = calleeMemo.get(method);
+            if (cached != null) {
+                config.getStats().increment(Counter.CACHE_HITS);
+                return cached;
+            }
+            ProgressManager.checkCanceled();
+            PsiCodeBlock body = method.getBody();
+            if (body == null) {
+                return List.of();
+            }
+
+            Set<PsiMethod> callees = new LinkedHashSet<>();
+            body.accept(new JavaRecursiveElementWalkingVisitor() {
+                @Override
+                public void visitMethodCallExpression(@NotNull PsiMethodCallExpression call) {
+                    // Qualifier and arguments first, so chained calls come out in evaluation order
+                    super.visitMethodCallExpression(call);
+                    if (!isObjectMethodCall(call.getMethodExpression().getReferenceName(),
+                            call.getArgumentList().getExpressionCount())) {
+                        add(call.resolveMethod());
+                    }
+                }
+
+                @Override
+                public void visitNewExpression(@NotNull PsiNewExpression expression) {
+                    super.visitNewExpression(expression);
+                    add(expression.resolveConstructor());
+                }
+
+                @Override
+                public void visitMethodReferenceExpression(@NotNull PsiMethodReferenceExpression expression) {
+                    super.visitMethodReferenceExpression(expression);
+                    if (!isObjectMethodCall(expression.getReferenceName(), -1)
+                            && expression.resolve() instanceof PsiMethod target) {
+                        add(target);
+                    }
+                }
+
+                private void add(@Nullable PsiMethod target) {
+                    config.getStats().increment(Counter.LOOKUPS);
+                    if (target != null && target != method && isRelevant(target)) {
+                        callees.add(target);
+                    }
+                }
+            });
+
+            List<PsiMethod> result = new ArrayList<>(callees);
+            calleeMemo.put(method, result);
+            return result;
+        }
+
+        private boolean isRelevant(@NotNull PsiMethod method) {
+            return relevanceMemo.computeIfAbsent(method, this::computeRelevant);
+        }
+
+        private boolean computeRelevant(@NotNull PsiMethod method) {
+            if (method instanceof PsiCompiledElement) {
+                return false;
+            }
+            PsiCodeBlock body = method.getBody();
+            if (body == null || body.isEmpty()) {
+                return false;
+            }
+            VirtualFile file = PsiUtilCore.getVirtualFile(method);
+            if (file == null || !fileIndex.isInSourceContent(file)) {
+                return false;
+            }
+            if (!config.isIncludeTests() && fileIndex.isInTestSourceContent(file)) {
+                return false;
+            }
+            return config.isIncludeAccessors() || !PropertyUtilBase.isSimplePropertyAccessor(method);
+        }
+
+        private FunctionContext toContext(@NotNull PsiMethod method, int depth) {
+            String name = PsiFormatUtil.formatMethod(method, PsiSubstitutor.EMPTY, NAME_OPTIONS, PsiFormatUtilBase.SHOW_TYPE);
+            PsiFile file = method.getContainingFile();
+            VirtualFile virtualFile = file.getVirtualFile();
+            String path = virtualFile == null ? file.getName()
+                    : projectDir != null && VfsUtilCore.isAncestor(projectDir, virtualFile, true)
+                    ? VfsUtilCore.getRelativePath(virtualFile, projectDir, '/')
+                    : virtualFile.getPath();
+
+            String code = method.getText();
+            PsiDocComment docComment = method.getDocComment();
+            if (!config.isIncludeComments() && docComment != null) {
+                int docEnd = docComment.getTextRange().getEndOffset() - method.getTextRange().getStartOffset();
+                code = code.substring(docEnd).stripLeading();
+            }
+
+            String imports = null;
+            if (config.isIncludeImports() && file instanceof PsiJavaFile javaFile && javaFile.getImportList() != null) {
+                imports = javaFile.getImportList().getText();
+            }
+            return new FunctionContext(name, path, "java", code, imports, depth);
+        }
+    }
+}
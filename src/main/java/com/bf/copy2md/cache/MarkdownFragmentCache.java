@@ -0,0 +1,97 @@
+package com.bf.copy2md.cache;
+
+import com.bf.copy2md.util.FileContentReader;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Formatted Markdown fragments of recently copied files, so copying the same unchanged files again
+ * only costs a concatenation. Entries are keyed by file and modification stamp, evicted in LRU order
+ * once the cache exceeds its size budget (see core's {@link MarkdownFragmentLru}), and dropped as
+ * soon as the file or its document changes.
+ */
+@Service(Service.Level.PROJECT)
+public final class MarkdownFragmentCache implements Disposable {
+    // Budget in chars, i.e. about 32 MB of heap
+    private static final long MAX_CACHED_CHARS = 16L * 1024 * 1024;
+    // Larger fragments are streamed instead of cached, so one file cannot flush the whole cache
+    private static final long MAX_ENTRY_CHARS = MAX_CACHED_CHARS / 8;
+
+    private final MarkdownFragmentLru<VirtualFile> fragments = new MarkdownFragmentLru<>(MAX_CACHED_CHARS, MAX_ENTRY_CHARS);
+
+    public MarkdownFragmentCache(@NotNull Project project) {
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    VirtualFile file = event.getFile();
+                    if (file != null && file.isDirectory()) {
+                        // Moves and renames change the relative path in every header below
+                        clear();
+                    } else if (file != null) {
+                        invalidate(file);
+                    }
+                }
+            }
+        });
+        EditorFactory.getInstance().getEventMulticaster().addDocumentListener(new DocumentListener() {
+            @Override
+            public void documentChanged(@NotNull DocumentEvent event) {
+                VirtualFile file = FileDocumentManager.getInstance().getFile(event.getDocument());
+                if (file != null) {
+                    invalidate(file);
+                }
+            }
+        }, this);
+    }
+
+    public static MarkdownFragmentCache getInstance(@NotNull Project project) {
+        return project.getService(MarkdownFragmentCache.class);
+    }
+
+    /**
+     * Modification stamp the cache uses for {@code file}.
+     */
+    public static long stampOf(@NotNull VirtualFile file) {
+        return FileContentReader.modificationStamp(file);
+    }
+
+    public static boolean isCacheable(long fragmentLength) {
+        return fragmentLength <= MAX_ENTRY_CHARS;
+    }
+
+    public synchronized @Nullable MarkdownFragmentLru.Entry get(@NotNull VirtualFile file, long stamp) {
+        return fragments.get(file, stamp);
+    }
+
+    public synchronized void put(@NotNull VirtualFile file, long stamp, @NotNull String fragment,
+                                 long contentHash, int contentLength) {
+        fragments.put(file, stamp, fragment, contentHash, contentLength);
+    }
+
+    public synchronized void invalidate(@NotNull VirtualFile file) {
+        fragments.invalidate(file);
+    }
+
+    public synchronized void clear() {
+        fragments.clear();
+    }
+
+    @Override
+    public void dispose() {
+        clear();
+    }
+}
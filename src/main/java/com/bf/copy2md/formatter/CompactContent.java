@@ -0,0 +1,109 @@
+package com.bf.copy2md.formatter;
+
+import com.intellij.lang.Language;
+import com.intellij.lang.LanguageParserDefinitions;
+import com.intellij.lang.ParserDefinition;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.fileTypes.LanguageFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Writes file content without comments and with whitespace squeezed, for the compact output
+ * mode. The file's own lexer (from the language's {@link ParserDefinition}) runs once over the
+ * text, so this works for every language the IDE can parse and never touches string literals.
+ * Comment tokens are dropped; a gap of whitespace and comments between two code tokens becomes
+ * a single space, a line break with the next line's indentation, or a single blank line if the
+ * gap had any. Leading and trailing gaps, license headers among them, are dropped.
+ */
+public final class CompactContent {
+    private final ParserDefinition definition;
+    private final Project project;
+    private final TokenSet comments;
+    private final TokenSet whitespace;
+
+    private CompactContent(@NotNull ParserDefinition definition, @NotNull Project project) {
+        this.definition = definition;
+        this.project = project;
+        this.comments = definition.getCommentTokens();
+        this.whitespace = definition.getWhitespaceTokens();
+    }
+
+    /**
+     * Compactor for {@code file}'s language, or null if the IDE has no lexer for it and the
+     * content should be copied as it is.
+     */
+    public static @Nullable CompactContent forFile(@NotNull Project project, @NotNull VirtualFile file) {
+        FileType fileType = file.getFileType();
+        if (!(fileType instanceof LanguageFileType languageFileType)) {
+            return null;
+        }
+        Language language = languageFileType.getLanguage();
+        ParserDefinition definition = LanguageParserDefinitions.INSTANCE.forLanguage(language);
+        return definition != null ? new CompactContent(definition, project) : null;
+    }
+
+    public void append(@NotNull Appendable out, @NotNull CharSequence content) throws IOException {
+        // Lexers keep state, so every file gets its own
+        Lexer lexer = definition.createLexer(project);
+        lexer.start(content);
+
+        boolean started = false;
+        boolean gap = false;
+        boolean lineBreak = false;
+        boolean blankLine = false;
+        boolean commentOnLine = false;
+        int indentStart = -1;
+        int indentEnd = -1;
+        for (IElementType token; (token = lexer.getTokenType()) != null; lexer.advance()) {
+            int start = lexer.getTokenStart();
+            int end = lexer.getTokenEnd();
+            if (comments.contains(token)) {
+                gap = true;
+                commentOnLine = true;
+            } else if (token == TokenType.WHITE_SPACE || whitespace.contains(token)) {
+                gap = true;
+                for (int i = start; i < end; i++) {
+                    if (content.charAt(i) == '\n') {
+                        // A line that only held a comment does not count as blank
+                        blankLine |= lineBreak && !commentOnLine;
+                        lineBreak = true;
+                        commentOnLine = false;
+                        indentStart = i + 1;
+                    }
+                }
+                if (indentStart >= start || indentEnd == start) {
+                    // Indentation may be split over several whitespace tokens
+                    indentEnd = end;
+                }
+            } else {
+                if (started && gap) {
+                    if (!lineBreak) {
+                        out.append(' ');
+                    } else {
+                        out.append(blankLine ? "\n\n" : "\n");
+                        if (indentStart >= 0 && indentEnd > indentStart) {
+                            out.append(content, indentStart, indentEnd);
+                        }
+                    }
+                }
+                out.append(content, start, end);
+                started = true;
+                gap = false;
+                lineBreak = false;
+                blankLine = false;
+                commentOnLine = false;
+                indentStart = -1;
+                indentEnd = -1;
+            }
+        }
+    }
+}
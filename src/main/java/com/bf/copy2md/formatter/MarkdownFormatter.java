@@ -1,27 +1,120 @@
 package com.bf.copy2md.formatter;
 
+import com.bf.copy2md.analysis.FunctionContext;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
 public class MarkdownFormatter {
-    public String formatFileContent(Project project, VirtualFile file, String content) {
-        StringBuilder markdown = new StringBuilder();
-        
-        // Add file path as header
+    private final boolean compact;
+
+    public MarkdownFormatter() {
+        this(false);
+    }
+
+    /**
+     * @param compact write file contents through {@link CompactContent}, without comments and
+     *                blank-line runs, wherever the IDE has a lexer for the file
+     */
+    public MarkdownFormatter(boolean compact) {
+        this.compact = compact;
+    }
+
+    public String formatFileContent(Project project, VirtualFile file, CharSequence content) {
+        String relativePath = relativePath(project, file);
+        StringBuilder markdown = new StringBuilder(estimateFragmentSize(relativePath, content.length()));
+        try {
+            appendFileContent(markdown, project, file, relativePath, content);
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return markdown.toString();
+    }
+
+    /**
+     * Writes the Markdown fragment for one file straight into {@code out}, without building
+     * an intermediate String for the file.
+     */
+    public void appendFileContent(Appendable out, Project project, VirtualFile file, CharSequence content) throws IOException {
+        appendFileContent(out, project, file, relativePath(project, file), content);
+    }
+
+    private void appendFileContent(Appendable out, Project project, VirtualFile file, String relativePath,
+                                   CharSequence content) throws IOException {
+        CompactContent compactContent = compact ? CompactContent.forFile(project, file) : null;
+        if (compactContent == null) {
+            appendFileContent(out, relativePath, file.getExtension(), content);
+            return;
+        }
+        MarkdownFragment.appendOpening(out, relativePath, file.getExtension());
+        compactContent.append(out, content);
+        MarkdownFragment.appendClosing(out);
+    }
+
+    public void appendFileContent(Appendable out, String relativePath, String fileExtension, CharSequence content) throws IOException {
+        MarkdownFragment.append(out, relativePath, fileExtension, content);
+    }
+
+    /**
+     * Fragment for a file in the outline mode: its outline in a code block, or only the heading
+     * if {@code outline} is null, so files without declarations are still listed.
+     */
+    public String formatOutline(Project project, VirtualFile file, @Nullable String outline) {
+        String relativePath = relativePath(project, file);
+        StringBuilder markdown = new StringBuilder(estimateFragmentSize(relativePath, outline != null ? outline.length() : 0));
+        try {
+            if (outline != null) {
+                MarkdownFragment.append(markdown, relativePath, file.getExtension(), outline.stripTrailing());
+            } else {
+                MarkdownFragment.appendHeading(markdown, relativePath);
+            }
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return markdown.toString();
+    }
+
+    /**
+     * Capacity hint for a fragment, so buffers can be allocated once at the right size.
+     */
+    public static int estimateFragmentSize(String relativePath, long contentLength) {
+        return MarkdownFragment.estimateSize(relativePath, contentLength);
+    }
+
+    /**
+     * Writes one function of a call graph: the analyzed function as "Function", callees as
+     * "Dependency", each with its file and, if requested, the file's imports.
+     */
+    public void appendFunction(Appendable out, FunctionContext function, boolean withImports) throws IOException {
+        out.append(function.getDepth() == 0 ? "## Function: " : "## Dependency: ").append(function.getName())
+                .append("\n\n").append("File: ").append(function.getFilePath()).append("\n\n");
+
+        out.append("```").append(function.getLanguage()).append("\n");
+        if (withImports && function.getImports() != null && !function.getImports().isEmpty()) {
+            out.append(function.getImports()).append("\n\n");
+        }
+        out.append(function.getCode()).append("\n");
+        out.append("```\n\n");
+    }
+
+    /**
+     * Notes after the last function that {@code count} callees did not fit the token budget,
+     * worded like the comment the Python extractor puts at the end of its output.
+     */
+    public void appendOmittedDependencies(Appendable out, int count) throws IOException {
+        out.append(String.valueOf(count)).append(" dependencies omitted to fit the token budget\n\n");
+    }
+
+    public String relativePath(Project project, VirtualFile file) {
         Path projectPath = Paths.get(project.getBasePath());
         Path filePath = Paths.get(file.getPath());
-        Path relativePath = projectPath.relativize(filePath);
-        
-        markdown.append("## File: ").append(relativePath).append("\n\n");
-        
-        // Add code block with language
-        String fileExtension = file.getExtension();
-        markdown.append("```").append(fileExtension != null ? fileExtension : "").append("\n");
-        markdown.append(content).append("\n");
-        markdown.append("```\n\n");
-        
-        return markdown.toString();
+        return projectPath.relativize(filePath).toString();
     }
 }
@@ -0,0 +1,54 @@
+package com.bf.copy2md.index;
+
+import com.bf.copy2md.analysis.PythonSourceScanner;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Maps function names to the offset of their {@code def} or {@code async def} in Python files.
+ * Definitions are found by {@link PythonSourceScanner#scanDefinitions} over the file text, so no
+ * language plugin is needed. Go functions are resolved per package by
+ * {@link com.bf.copy2md.analysis.GoSymbolTable}.
+ */
+public class FunctionDefinitionIndex extends FileBasedIndexExtension<String, Integer> {
+    public static final ID<String, Integer> NAME = ID.create("com.bf.copy2md.functionDefinitions");
+
+    @Override
+    public @NotNull ID<String, Integer> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, Integer, FileContent> getIndexer() {
+        return inputData -> PythonSourceScanner.scanDefinitions(inputData.getContentAsText());
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<Integer> getValueExternalizer() {
+        return EnumeratorIntegerDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @Override
+    public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+        return file -> "py".equals(file.getExtension());
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+}
@@ -0,0 +1,176 @@
+package com.bf.copy2md.outline;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Outlines Java files from their stubs. Only accessors the stub tree can answer are used (names,
+ * modifiers, type texts, reference lists), so a file whose AST is not loaded yet is never parsed;
+ * its stub comes from the stub index. Javadoc is not part of the stubs and is left out. Members
+ * added by augment providers (record accessors, Lombok) are not source declarations and are
+ * skipped too.
+ */
+public class JavaOutlineProvider implements OutlineProvider {
+    private static final String INDENT = "    ";
+
+    @Override
+    public boolean isApplicable(@NotNull VirtualFile file) {
+        return file.getFileType() == JavaFileType.INSTANCE;
+    }
+
+    @Override
+    public @Nullable String buildOutline(@NotNull Project project, @NotNull VirtualFile file) {
+        // Non-blocking, so a long outline run restarts instead of holding up write actions
+        return ReadAction.nonBlocking(() -> build(project, file)).executeSynchronously();
+    }
+
+    private static @Nullable String build(@NotNull Project project, @NotNull VirtualFile file) {
+        if (!file.isValid() || !(PsiManager.getInstance(project).findFile(file) instanceof PsiJavaFile javaFile)) {
+            return null;
+        }
+        StringBuilder out = new StringBuilder();
+        String packageName = javaFile.getPackageName();
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n");
+        }
+        for (PsiClass psiClass : javaFile.getClasses()) {
+            if (out.length() > 0) {
+                out.append('\n');
+            }
+            appendClass(out, psiClass, "");
+        }
+        return out.length() > 0 ? out.toString() : null;
+    }
+
+    private static void appendClass(StringBuilder out, PsiClass psiClass, String indent) {
+        out.append(indent);
+        appendModifiers(out, psiClass);
+        out.append(keyword(psiClass)).append(' ').append(psiClass.getName());
+        appendTypeParameters(out, psiClass);
+        if (psiClass.isRecord()) {
+            out.append('(');
+            PsiRecordComponent[] components = psiClass.getRecordComponents();
+            for (int i = 0; i < components.length; i++) {
+                out.append(i > 0 ? ", " : "").append(components[i].getType().getPresentableText())
+                        .append(' ').append(components[i].getName());
+            }
+            out.append(')');
+        }
+        appendTypes(out, " extends ", psiClass.getExtendsList());
+        appendTypes(out, " implements ", psiClass.getImplementsList());
+        appendTypes(out, " permits ", psiClass.getPermitsList());
+        out.append(" {\n");
+
+        String memberIndent = indent + INDENT;
+        List<PsiField> fields = psiClass instanceof PsiExtensibleClass extensible
+                ? extensible.getOwnFields() : Arrays.asList(psiClass.getFields());
+        StringBuilder constants = new StringBuilder();
+        for (PsiField field : fields) {
+            if (field instanceof PsiEnumConstant) {
+                constants.append(constants.length() > 0 ? ", " : "").append(field.getName());
+            }
+        }
+        if (constants.length() > 0) {
+            out.append(memberIndent).append(constants).append(";\n");
+        }
+        for (PsiField field : fields) {
+            if (!(field instanceof PsiEnumConstant)) {
+                out.append(memberIndent);
+                appendModifiers(out, field);
+                out.append(field.getType().getPresentableText()).append(' ').append(field.getName()).append(";\n");
+            }
+        }
+
+        List<PsiMethod> methods = psiClass instanceof PsiExtensibleClass extensible
+                ? extensible.getOwnMethods() : Arrays.asList(psiClass.getMethods());
+        for (PsiMethod method : methods) {
+            out.append(memberIndent);
+            appendMethod(out, method);
+        }
+
+        List<PsiClass> innerClasses = psiClass instanceof PsiExtensibleClass extensible
+                ? extensible.getOwnInnerClasses() : Arrays.asList(psiClass.getInnerClasses());
+        for (PsiClass innerClass : innerClasses) {
+            appendClass(out, innerClass, memberIndent);
+        }
+        out.append(indent).append("}\n");
+    }
+
+    private static void appendMethod(StringBuilder out, PsiMethod method) {
+        appendModifiers(out, method);
+        if (method.getTypeParameters().length > 0) {
+            appendTypeParameters(out, method);
+            out.append(' ');
+        }
+        PsiType returnType = method.getReturnType();
+        if (returnType != null) {
+            out.append(returnType.getPresentableText()).append(' ');
+        }
+        out.append(method.getName()).append('(');
+        PsiParameter[] parameters = method.getParameterList().getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            out.append(i > 0 ? ", " : "").append(parameters[i].getType().getPresentableText())
+                    .append(' ').append(parameters[i].getName());
+        }
+        out.append(')');
+        appendTypes(out, " throws ", method.getThrowsList());
+        out.append(";\n");
+    }
+
+    private static String keyword(PsiClass psiClass) {
+        if (psiClass.isAnnotationType()) {
+            return "@interface";
+        }
+        if (psiClass.isInterface()) {
+            return "interface";
+        }
+        if (psiClass.isEnum()) {
+            return "enum";
+        }
+        return psiClass.isRecord() ? "record" : "class";
+    }
+
+    private static void appendModifiers(StringBuilder out, PsiModifierListOwner owner) {
+        PsiModifierList modifierList = owner.getModifierList();
+        if (modifierList == null) {
+            return;
+        }
+        for (String modifier : PsiModifier.MODIFIERS) {
+            if (modifierList.hasExplicitModifier(modifier)) {
+                out.append(modifier).append(' ');
+            }
+        }
+    }
+
+    private static void appendTypeParameters(StringBuilder out, PsiTypeParameterListOwner owner) {
+        PsiTypeParameter[] typeParameters = owner.getTypeParameters();
+        if (typeParameters.length == 0) {
+            return;
+        }
+        out.append('<');
+        for (int i = 0; i < typeParameters.length; i++) {
+            out.append(i > 0 ? ", " : "").append(typeParameters[i].getName());
+            appendTypes(out, " extends ", typeParameters[i].getExtendsList(), " & ");
+        }
+        out.append('>');
+    }
+
+    private static void appendTypes(StringBuilder out, String prefix, @Nullable PsiReferenceList list) {
+        appendTypes(out, prefix, list, ", ");
+    }
+
+    private static void appendTypes(StringBuilder out, String prefix, @Nullable PsiReferenceList list, String separator) {
+        PsiClassType[] types = list != null ? list.getReferencedTypes() : PsiClassType.EMPTY_ARRAY;
+        for (int i = 0; i < types.length; i++) {
+            out.append(i == 0 ? prefix : separator).append(types[i].getPresentableText());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.bf.copy2md.outline;
+
+import com.intellij.openapi.extensions.ExtensionPointName;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Builds the declarations-only outline of a file for the outline copy mode. Registered through
+ * the {@code com.bf.copy2md.outlineProvider} extension point; the first applicable provider
+ * wins, so cheap, language-specific ones are registered before the generic fallback.
+ * Implementations take their own read actions and are called from background threads.
+ */
+public interface OutlineProvider {
+    ExtensionPointName<OutlineProvider> EP_NAME = ExtensionPointName.create("com.bf.copy2md.outlineProvider");
+
+    boolean isApplicable(@NotNull VirtualFile file);
+
+    /**
+     * @return class, function and field declarations of {@code file} as text, ideally in the
+     *         file's own language; null if no outline can be built for it
+     */
+    @Nullable String buildOutline(@NotNull Project project, @NotNull VirtualFile file) throws IOException;
+
+    static @Nullable OutlineProvider forFile(@NotNull VirtualFile file) {
+        for (OutlineProvider provider : EP_NAME.getExtensionList()) {
+            if (provider.isApplicable(file)) {
+                return provider;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.bf.copy2md.outline;
+
+import com.bf.copy2md.settings.Copy2MdSettings;
+import com.bf.copy2md.util.FileContentReader;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Outlines Python and Go files from their text with {@link PythonOutline} and {@link GoOutline},
+ * with or without the language plugins. One linear scan per file and no PSI.
+ */
+public class SourceOutlineProvider implements OutlineProvider {
+
+    @Override
+    public boolean isApplicable(@NotNull VirtualFile file) {
+        String extension = file.getExtension();
+        return "py".equals(extension) || "pyi".equals(extension) || "go".equals(extension);
+    }
+
+    @Override
+    public @Nullable String buildOutline(@NotNull Project project, @NotNull VirtualFile file) throws IOException {
+        Copy2MdSettings settings = Copy2MdSettings.getInstance();
+        CharSequence content = FileContentReader.readContent(file, settings.getMaxFileSizeKb() * 1024L,
+                settings.getTruncationWindowKb() * 1024);
+        if (content == null) {
+            return null;
+        }
+        String outline = "go".equals(file.getExtension()) ? GoOutline.build(content) : PythonOutline.build(content);
+        return outline.isEmpty() ? null : outline;
+    }
+}
@@ -0,0 +1,81 @@
+package com.bf.copy2md.outline;
+
+import com.intellij.ide.structureView.StructureViewBuilder;
+import com.intellij.ide.structureView.StructureViewModel;
+import com.intellij.ide.structureView.TreeBasedStructureViewBuilder;
+import com.intellij.ide.util.treeView.smartTree.TreeElement;
+import com.intellij.lang.LanguageStructureViewBuilder;
+import com.intellij.navigation.ItemPresentation;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.fileTypes.LanguageFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Fallback outline for every other language with a Structure View: the view's tree, one element
+ * per line and indented by nesting, as the IDE presents it. Unlike the dedicated providers this
+ * builds the file's PSI, so it is registered last and stops after {@link #MAX_ELEMENTS} elements.
+ */
+public class StructureOutlineProvider implements OutlineProvider {
+    private static final int MAX_ELEMENTS = 1000;
+    private static final int MAX_DEPTH = 8;
+
+    @Override
+    public boolean isApplicable(@NotNull VirtualFile file) {
+        return file.getFileType() instanceof LanguageFileType;
+    }
+
+    @Override
+    public @Nullable String buildOutline(@NotNull Project project, @NotNull VirtualFile file) {
+        return ReadAction.nonBlocking(() -> build(project, file)).executeSynchronously();
+    }
+
+    private static @Nullable String build(@NotNull Project project, @NotNull VirtualFile file) {
+        PsiFile psiFile = file.isValid() ? PsiManager.getInstance(project).findFile(file) : null;
+        StructureViewBuilder builder = psiFile != null
+                ? LanguageStructureViewBuilder.INSTANCE.getStructureViewBuilder(psiFile) : null;
+        if (!(builder instanceof TreeBasedStructureViewBuilder treeBuilder)) {
+            return null;
+        }
+        StructureViewModel model = treeBuilder.createStructureViewModel(null);
+        try {
+            StringBuilder out = new StringBuilder();
+            int[] remaining = {MAX_ELEMENTS};
+            for (TreeElement child : model.getRoot().getChildren()) {
+                append(out, child, 0, remaining);
+            }
+            return out.length() > 0 ? out.toString() : null;
+        } finally {
+            Disposer.dispose(model);
+        }
+    }
+
+    private static void append(StringBuilder out, TreeElement element, int depth, int[] remaining) {
+        if (remaining[0] <= 0) {
+            return;
+        }
+        ItemPresentation presentation = element.getPresentation();
+        String text = presentation.getPresentableText();
+        if (StringUtil.isEmpty(text)) {
+            return;
+        }
+        remaining[0]--;
+        out.append("    ".repeat(depth)).append(text);
+        String location = presentation.getLocationString();
+        if (!StringUtil.isEmpty(location)) {
+            out.append(' ').append(location);
+        }
+        out.append('\n');
+        if (depth < MAX_DEPTH) {
+            for (TreeElement child : element.getChildren()) {
+                append(out, child, depth + 1, remaining);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.bf.copy2md.output;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Splits the document into parts that each stay under an estimated token budget, as laid out by
+ * core's {@link MarkdownChunker}: parts break between files, oversized files between lines, and
+ * every part starts with the run's header marked with the part number.
+ */
+public abstract class ChunkedOutput implements MarkdownOutput {
+    private final MarkdownChunker chunker;
+
+    protected ChunkedOutput(int tokenBudget) {
+        this.chunker = new MarkdownChunker(tokenBudget, this::writeChunk);
+    }
+
+    /**
+     * Receives each finished part, numbered from 1. The builder is not reused afterwards.
+     */
+    protected abstract void writeChunk(int index, @NotNull StringBuilder chunk) throws IOException;
+
+    protected int getChunkCount() {
+        return chunker.getChunkCount();
+    }
+
+    @Override
+    public void begin(@NotNull String header, long sizeHint) {
+        chunker.begin(header);
+    }
+
+    @Override
+    public @NotNull Appendable fileTarget() {
+        return chunker.fileTarget();
+    }
+
+    @Override
+    public void endFile() throws IOException {
+        chunker.endFile();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        chunker.finish();
+    }
+
+    @Override
+    public void discard() {
+        chunker.discard();
+    }
+}
@@ -0,0 +1,51 @@
+package com.bf.copy2md.output;
+
+import com.bf.copy2md.settings.Copy2MdSettings;
+import com.bf.copy2md.util.CopyUtil;
+import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Puts every part into the clipboard history, part 1 last so it is the one pasted first.
+ */
+public class ClipboardChunkedOutput extends ChunkedOutput {
+    private final int tokenBudget;
+    private final List<String> chunks = new ArrayList<>();
+
+    public ClipboardChunkedOutput(int tokenBudget) {
+        super(tokenBudget);
+        this.tokenBudget = tokenBudget;
+    }
+
+    @Override
+    protected void writeChunk(int index, @NotNull StringBuilder chunk) {
+        chunks.add(chunk.toString());
+    }
+
+    @Override
+    public void discard() {
+        super.discard();
+        chunks.clear();
+    }
+
+    @Override
+    public void publish(@NotNull Project project) {
+        if (chunks.isEmpty()) {
+            CopyUtil.showErrorHint(project, "No content generated for copying.");
+            return;
+        }
+        CopyPasteManager copyPasteManager = CopyPasteManager.getInstance();
+        boolean offerHtml = Copy2MdSettings.getInstance().isClipboardHtml();
+        for (int i = chunks.size() - 1; i >= 0; i--) {
+            copyPasteManager.setContents(new MarkdownTransferable(chunks.get(i), offerHtml));
+        }
+        CopyUtil.showInfoNotification(project, chunks.size() == 1
+                ? "Content copied to clipboard as Markdown"
+                : "Copied " + chunks.size() + " parts of at most ~" + tokenBudget + " tokens each. "
+                  + "Part 1 is on the clipboard, the rest are in Paste from History.");
+    }
+}
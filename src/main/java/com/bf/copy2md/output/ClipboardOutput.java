@@ -0,0 +1,63 @@
+package com.bf.copy2md.output;
+
+import com.bf.copy2md.settings.Copy2MdSettings;
+import com.bf.copy2md.util.CopyUtil;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Collects the whole document in one pre-sized buffer and copies it to the clipboard.
+ */
+public class ClipboardOutput implements MarkdownOutput {
+    private static final Logger LOG = Logger.getInstance(ClipboardOutput.class);
+    private StringBuilder markdown;
+    private int headerLength;
+    private String result = "";
+
+    @Override
+    public void begin(@NotNull String header, long sizeHint) {
+        markdown = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, Math.max(sizeHint, 16)));
+        markdown.append(header);
+        headerLength = header.length();
+    }
+
+    @Override
+    public @NotNull Appendable fileTarget() {
+        return markdown;
+    }
+
+    @Override
+    public void endFile() {
+    }
+
+    @Override
+    public void finish() {
+        // Remove trailing newlines if any
+        int end = markdown.length();
+        while (end > 0 && Character.isWhitespace(markdown.charAt(end - 1))) {
+            end--;
+        }
+        markdown.setLength(end);
+        result = markdown.length() > headerLength ? markdown.toString() : "";
+        markdown = null;
+    }
+
+    @Override
+    public void discard() {
+        markdown = null;
+        result = "";
+    }
+
+    @Override
+    public void publish(@NotNull Project project) {
+        if (result.isEmpty()) {
+            LOG.warn("Resulting markdown was empty.");
+            CopyUtil.showErrorHint(project, "No content generated for copying.");
+            return;
+        }
+        CopyUtil.copyToClipboardWithNotification(
+                new MarkdownTransferable(result, Copy2MdSettings.getInstance().isClipboardHtml()), project);
+        result = "";
+    }
+}
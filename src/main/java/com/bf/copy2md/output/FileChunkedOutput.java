@@ -0,0 +1,85 @@
+package com.bf.copy2md.output;
+
+import com.bf.copy2md.util.CopyUtil;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes every part to its own numbered file next to the chosen target, e.g. {@code out-part1.md}.
+ */
+public class FileChunkedOutput extends ChunkedOutput {
+    private static final Logger LOG = Logger.getInstance(FileChunkedOutput.class);
+    private final Path target;
+    private final List<Path> parts = new ArrayList<>();
+    private long startNanos;
+    private long bytesWritten;
+    private long elapsedMillis;
+
+    public FileChunkedOutput(@NotNull Path target, int tokenBudget) {
+        super(tokenBudget);
+        this.target = target;
+    }
+
+    @Override
+    public void begin(@NotNull String header, long sizeHint) {
+        startNanos = System.nanoTime();
+        super.begin(header, sizeHint);
+    }
+
+    @Override
+    protected void writeChunk(int index, @NotNull StringBuilder chunk) throws IOException {
+        String fileName = target.getFileName().toString();
+        String extension = FileUtilRt.getExtension(fileName);
+        String baseName = FileUtilRt.getNameWithoutExtension(fileName);
+        Path part = target.resolveSibling(baseName + "-part" + index + (extension.isEmpty() ? "" : "." + extension));
+
+        FileOutput output = new FileOutput(part);
+        try {
+            output.begin("", chunk.length());
+            output.fileTarget().append(chunk);
+            output.finish();
+        } catch (IOException e) {
+            // Not in parts yet, so remove the half-written part here
+            output.discard();
+            throw e;
+        }
+        bytesWritten += output.getBytesWritten();
+        parts.add(part);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        super.finish();
+        elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    @Override
+    public void discard() {
+        super.discard();
+        for (Path part : parts) {
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException e) {
+                LOG.warn("Could not remove partial export: " + part, e);
+            }
+        }
+    }
+
+    @Override
+    public void publish(@NotNull Project project) {
+        LocalFileSystem.getInstance().refreshNioFiles(parts);
+        CopyUtil.showInfoNotification(project, "Exported " + StringUtil.formatFileSize(bytesWritten)
+                + " of Markdown as " + getChunkCount() + " part(s) next to " + target
+                + " in " + StringUtil.formatDuration(elapsedMillis));
+    }
+}
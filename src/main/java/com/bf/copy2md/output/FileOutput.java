@@ -0,0 +1,94 @@
+package com.bf.copy2md.output;
+
+import com.bf.copy2md.util.CopyUtil;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Streams the document to a Markdown file as each file is formatted, so the whole output is
+ * never held in memory. Suitable for dumps too large for the system clipboard.
+ */
+public class FileOutput implements MarkdownOutput {
+    private static final Logger LOG = Logger.getInstance(FileOutput.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path target;
+    private FileChannel channel;
+    private Writer writer;
+    // Set once this output has created or truncated the target, the only case discard() removes it
+    private boolean opened;
+    private long startNanos;
+    private long bytesWritten;
+    private long elapsedMillis;
+
+    public FileOutput(@NotNull Path target) {
+        this.target = target;
+    }
+
+    @Override
+    public void begin(@NotNull String header, long sizeHint) throws IOException {
+        startNanos = System.nanoTime();
+        channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        opened = true;
+        writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE), BUFFER_SIZE);
+        writer.write(header);
+    }
+
+    @Override
+    public @NotNull Appendable fileTarget() {
+        return writer;
+    }
+
+    @Override
+    public void endFile() {
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+        bytesWritten = channel.position();
+        writer.close();
+        elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void discard() {
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+            if (opened) {
+                Files.deleteIfExists(target);
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not remove partial export: " + target, e);
+        }
+    }
+
+    @Override
+    public void publish(@NotNull Project project) {
+        // Make the new file visible to the IDE right away
+        LocalFileSystem.getInstance().refreshNioFiles(List.of(target));
+        CopyUtil.showInfoNotification(project, "Exported " + StringUtil.formatFileSize(bytesWritten)
+                + " of Markdown to " + target + " in " + StringUtil.formatDuration(elapsedMillis));
+    }
+}
@@ -0,0 +1,34 @@
+package com.bf.copy2md.output;
+
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Destination of a copy run. All methods except {@link #publish(Project)} are called from the
+ * background task, in order: {@link #begin}, then {@link #fileTarget()}/{@link #endFile()} once per
+ * file, then {@link #finish()}. {@link #discard()} replaces {@link #finish()} on cancel or failure.
+ */
+public interface MarkdownOutput {
+    /**
+     * @param sizeHint expected output length in chars, may be used to pre-size buffers
+     */
+    void begin(@NotNull String header, long sizeHint) throws IOException;
+
+    /**
+     * Target the formatter writes the current file's fragment into.
+     */
+    @NotNull Appendable fileTarget() throws IOException;
+
+    void endFile() throws IOException;
+
+    void finish() throws IOException;
+
+    void discard();
+
+    /**
+     * Hands the result to the user. Runs on the EDT.
+     */
+    void publish(@NotNull Project project);
+}
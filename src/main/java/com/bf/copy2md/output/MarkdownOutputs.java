@@ -0,0 +1,25 @@
+package com.bf.copy2md.output;
+
+import com.bf.copy2md.settings.Copy2MdSettings;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+
+/**
+ * Picks the output implementation matching the current settings.
+ */
+public final class MarkdownOutputs {
+
+    private MarkdownOutputs() {
+    }
+
+    public static @NotNull MarkdownOutput clipboard() {
+        int budget = Copy2MdSettings.getInstance().getChunkTokenBudget();
+        return budget > 0 ? new ClipboardChunkedOutput(budget) : new ClipboardOutput();
+    }
+
+    public static @NotNull MarkdownOutput file(@NotNull Path target) {
+        int budget = Copy2MdSettings.getInstance().getChunkTokenBudget();
+        return budget > 0 ? new FileChunkedOutput(target, budget) : new FileOutput(target);
+    }
+}
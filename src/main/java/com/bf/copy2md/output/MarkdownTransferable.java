@@ -0,0 +1,64 @@
+package com.bf.copy2md.output;
+
+import com.bf.copy2md.formatter.MarkdownHtml;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+
+/**
+ * Clipboard content of a copy. The Markdown, already built by the copy task, is offered as plain
+ * text; when enabled, an HTML rendering is offered too for rich-text targets. Only the HTML is
+ * deferred: it is rendered when a paste target first asks for it, and kept for later pastes.
+ */
+public final class MarkdownTransferable implements Transferable {
+    private static final DataFlavor[] TEXT_FLAVORS = {DataFlavor.stringFlavor};
+    private static final DataFlavor[] TEXT_AND_HTML_FLAVORS = {
+            DataFlavor.stringFlavor, DataFlavor.allHtmlFlavor, DataFlavor.fragmentHtmlFlavor, DataFlavor.selectionHtmlFlavor};
+
+    private final boolean offerHtml;
+    private final String markdown;
+    private String html;
+
+    /**
+     * @param offerHtml also offer the document rendered as HTML
+     */
+    public MarkdownTransferable(@NotNull String markdown, boolean offerHtml) {
+        this.markdown = markdown;
+        this.offerHtml = offerHtml;
+    }
+
+    @Override
+    public DataFlavor[] getTransferDataFlavors() {
+        return (offerHtml ? TEXT_AND_HTML_FLAVORS : TEXT_FLAVORS).clone();
+    }
+
+    @Override
+    public boolean isDataFlavorSupported(DataFlavor flavor) {
+        for (DataFlavor supported : offerHtml ? TEXT_AND_HTML_FLAVORS : TEXT_FLAVORS) {
+            if (supported.equals(flavor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public @NotNull Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException {
+        if (DataFlavor.stringFlavor.equals(flavor)) {
+            return markdown;
+        }
+        if (offerHtml && isDataFlavorSupported(flavor)) {
+            return html();
+        }
+        throw new UnsupportedFlavorException(flavor);
+    }
+
+    private synchronized String html() {
+        if (html == null) {
+            html = MarkdownHtml.render(markdown);
+        }
+        return html;
+    }
+}
@@ -0,0 +1,128 @@
+package com.bf.copy2md.settings;
+
+import com.bf.copy2md.cache.MarkdownFragmentCache;
+import com.intellij.openapi.options.Configurable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.ui.JBIntSpinner;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextArea;
+import com.intellij.util.ui.FormBuilder;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+
+public class Copy2MdConfigurable implements Configurable {
+    private JBIntSpinner chunkTokenBudget;
+    private JBIntSpinner maxFileSizeKb;
+    private JBIntSpinner truncationWindowKb;
+    private JBIntSpinner functionTokenBudget;
+    private JBTextArea ignorePatterns;
+    private JBCheckBox respectGitignore;
+    private JBCheckBox skipExcludedFiles;
+    private JBCheckBox compactOutput;
+    private JBCheckBox deduplicateFiles;
+    private JBCheckBox clipboardHtml;
+
+    @Override
+    public @Nls(capitalization = Nls.Capitalization.Title) String getDisplayName() {
+        return "Copy2MD";
+    }
+
+    @Override
+    public @Nullable JComponent createComponent() {
+        chunkTokenBudget = new JBIntSpinner(0, 0, 10_000_000, 1_000);
+        maxFileSizeKb = new JBIntSpinner(1024, 1, 1_000_000, 128);
+        truncationWindowKb = new JBIntSpinner(64, 1, 100_000, 16);
+        functionTokenBudget = new JBIntSpinner(0, 0, 10_000_000, 1_000);
+        ignorePatterns = new JBTextArea(6, 40);
+        respectGitignore = new JBCheckBox("Leave out files matched by .gitignore");
+        skipExcludedFiles = new JBCheckBox("Leave out excluded folders and ignored files");
+        compactOutput = new JBCheckBox("Compact output: leave out comments and blank-line runs");
+        deduplicateFiles = new JBCheckBox("Copy files with identical content once, later ones as a reference");
+        clipboardHtml = new JBCheckBox("Also offer HTML when pasting into rich-text editors");
+        return FormBuilder.createFormBuilder()
+                .addLabeledComponent("Split output into chunks of at most (tokens, 0 = off):", chunkTokenBudget)
+                .addLabeledComponent("Truncate files larger than (KB):", maxFileSizeKb)
+                .addLabeledComponent("Keep head and tail of truncated files (KB each):", truncationWindowKb)
+                .addLabeledComponent("Copy Function: stop adding dependencies at (tokens, 0 = off):", functionTokenBudget)
+                .addComponent(respectGitignore)
+                .addComponent(skipExcludedFiles)
+                .addComponent(compactOutput)
+                .addComponent(deduplicateFiles)
+                .addComponent(clipboardHtml)
+                .addLabeledComponent("Ignore patterns when copying folders (gitignore syntax, one per line):",
+                        new JBScrollPane(ignorePatterns), true)
+                .addComponentFillVertically(new JPanel(), 0)
+                .getPanel();
+    }
+
+    @Override
+    public boolean isModified() {
+        Copy2MdSettings settings = Copy2MdSettings.getInstance();
+        return chunkTokenBudget.getNumber() != settings.getChunkTokenBudget()
+                || maxFileSizeKb.getNumber() != settings.getMaxFileSizeKb()
+                || truncationWindowKb.getNumber() != settings.getTruncationWindowKb()
+                || functionTokenBudget.getNumber() != settings.getFunctionTokenBudget()
+                || !ignorePatterns.getText().equals(settings.getIgnorePatterns())
+                || respectGitignore.isSelected() != settings.isRespectGitignore()
+                || skipExcludedFiles.isSelected() != settings.isSkipExcludedFiles()
+                || compactOutput.isSelected() != settings.isCompactOutput()
+                || deduplicateFiles.isSelected() != settings.isDeduplicateFiles()
+                || clipboardHtml.isSelected() != settings.isClipboardHtml();
+    }
+
+    @Override
+    public void apply() {
+        Copy2MdSettings settings = Copy2MdSettings.getInstance();
+        settings.setChunkTokenBudget(chunkTokenBudget.getNumber());
+        settings.setMaxFileSizeKb(maxFileSizeKb.getNumber());
+        settings.setTruncationWindowKb(truncationWindowKb.getNumber());
+        settings.setFunctionTokenBudget(functionTokenBudget.getNumber());
+        settings.setIgnorePatterns(ignorePatterns.getText());
+        settings.setRespectGitignore(respectGitignore.isSelected());
+        settings.setSkipExcludedFiles(skipExcludedFiles.isSelected());
+        settings.setCompactOutput(compactOutput.isSelected());
+        settings.setDeduplicateFiles(deduplicateFiles.isSelected());
+        settings.setClipboardHtml(clipboardHtml.isSelected());
+
+        // Cached fragments were rendered with the old options
+        for (Project project : ProjectManager.getInstance().getOpenProjects()) {
+            MarkdownFragmentCache cache = project.getServiceIfCreated(MarkdownFragmentCache.class);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        Copy2MdSettings settings = Copy2MdSettings.getInstance();
+        chunkTokenBudget.setNumber(settings.getChunkTokenBudget());
+        maxFileSizeKb.setNumber(settings.getMaxFileSizeKb());
+        truncationWindowKb.setNumber(settings.getTruncationWindowKb());
+        functionTokenBudget.setNumber(settings.getFunctionTokenBudget());
+        ignorePatterns.setText(settings.getIgnorePatterns());
+        respectGitignore.setSelected(settings.isRespectGitignore());
+        skipExcludedFiles.setSelected(settings.isSkipExcludedFiles());
+        compactOutput.setSelected(settings.isCompactOutput());
+        deduplicateFiles.setSelected(settings.isDeduplicateFiles());
+        clipboardHtml.setSelected(settings.isClipboardHtml());
+    }
+
+    @Override
+    public void disposeUIResources() {
+        chunkTokenBudget = null;
+        maxFileSizeKb = null;
+        truncationWindowKb = null;
+        functionTokenBudget = null;
+        ignorePatterns = null;
+        respectGitignore = null;
+        skipExcludedFiles = null;
+        compactOutput = null;
+        deduplicateFiles = null;
+        clipboardHtml = null;
+    }
+}
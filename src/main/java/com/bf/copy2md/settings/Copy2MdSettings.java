@@ -0,0 +1,147 @@
+package com.bf.copy2md.settings;
+
+import com.bf.copy2md.ignore.IgnoreRules;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Application-wide Copy2MD options, edited under Settings → Tools → Copy2MD.
+ */
+@State(name = "Copy2MdSettings", storages = @Storage("copy2md.xml"))
+public class Copy2MdSettings implements PersistentStateComponent<Copy2MdSettings.State> {
+
+    public static class State {
+        /** Maximum estimated tokens per output chunk; 0 disables chunking. */
+        public int chunkTokenBudget = 0;
+        /** Files larger than this are copied as a head and a tail window. */
+        public int maxFileSizeKb = 1024;
+        /** Size of each of the head and tail windows of a truncated file. */
+        public int truncationWindowKb = 64;
+        /** Estimated tokens for Copy Function, the function and its dependencies together; 0 is unlimited. */
+        public int functionTokenBudget = 0;
+        /** Gitignore-style patterns left out when copying directories, one per line. */
+        public String ignorePatterns = ".idea/\nnode_modules/\n*.lock\npackage-lock.json\n";
+        /** Leave out paths matched by .gitignore files. */
+        public boolean respectGitignore = true;
+        /** Leave out the IDE's excluded and ignored files. */
+        public boolean skipExcludedFiles = true;
+        /** Drop comments and squeeze whitespace in copied files, using the IDE's lexer for each language. */
+        public boolean compactOutput = false;
+        /** Write files whose content was already copied as a reference to the first copy. */
+        public boolean deduplicateFiles = true;
+        /** Also put an HTML rendering on the clipboard, for rich-text paste targets. */
+        public boolean clipboardHtml = false;
+    }
+
+    private State state = new State();
+    // Compiled form of state.ignorePatterns, built on first use
+    private volatile IgnoreRules ignoreRules;
+
+    public static Copy2MdSettings getInstance() {
+        return ApplicationManager.getApplication().getService(Copy2MdSettings.class);
+    }
+
+    @Override
+    public @NotNull State getState() {
+        return state;
+    }
+
+    @Override
+    public void loadState(@NotNull State state) {
+        this.state = state;
+        this.ignoreRules = null;
+    }
+
+    public int getChunkTokenBudget() {
+        return state.chunkTokenBudget;
+    }
+
+    public void setChunkTokenBudget(int chunkTokenBudget) {
+        state.chunkTokenBudget = Math.max(0, chunkTokenBudget);
+    }
+
+    public int getMaxFileSizeKb() {
+        return state.maxFileSizeKb;
+    }
+
+    public void setMaxFileSizeKb(int maxFileSizeKb) {
+        state.maxFileSizeKb = Math.max(1, maxFileSizeKb);
+    }
+
+    public int getTruncationWindowKb() {
+        return state.truncationWindowKb;
+    }
+
+    public void setTruncationWindowKb(int truncationWindowKb) {
+        state.truncationWindowKb = Math.max(1, truncationWindowKb);
+    }
+
+    public int getFunctionTokenBudget() {
+        return state.functionTokenBudget;
+    }
+
+    public void setFunctionTokenBudget(int functionTokenBudget) {
+        state.functionTokenBudget = Math.max(0, functionTokenBudget);
+    }
+
+    public @NotNull String getIgnorePatterns() {
+        return state.ignorePatterns;
+    }
+
+    public void setIgnorePatterns(@NotNull String ignorePatterns) {
+        state.ignorePatterns = ignorePatterns;
+        ignoreRules = null;
+    }
+
+    public @NotNull IgnoreRules getIgnoreRules() {
+        IgnoreRules rules = ignoreRules;
+        if (rules == null) {
+            rules = IgnoreRules.parse(state.ignorePatterns);
+            ignoreRules = rules;
+        }
+        return rules;
+    }
+
+    public boolean isRespectGitignore() {
+        return state.respectGitignore;
+    }
+
+    public void setRespectGitignore(boolean respectGitignore) {
+        state.respectGitignore = respectGitignore;
+    }
+
+    public boolean isSkipExcludedFiles() {
+        return state.skipExcludedFiles;
+    }
+
+    public void setSkipExcludedFiles(boolean skipExcludedFiles) {
+        state.skipExcludedFiles = skipExcludedFiles;
+    }
+
+    public boolean isCompactOutput() {
+        return state.compactOutput;
+    }
+
+    public void setCompactOutput(boolean compactOutput) {
+        state.compactOutput = compactOutput;
+    }
+
+    public boolean isDeduplicateFiles() {
+        return state.deduplicateFiles;
+    }
+
+    public void setDeduplicateFiles(boolean deduplicateFiles) {
+        state.deduplicateFiles = deduplicateFiles;
+    }
+
+    public boolean isClipboardHtml() {
+        return state.clipboardHtml;
+    }
+
+    public void setClipboardHtml(boolean clipboardHtml) {
+        state.clipboardHtml = clipboardHtml;
+    }
+}
@@ -0,0 +1,97 @@
+package com.bf.copy2md.stats;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Timings and counters of one copy, recorded by whatever threads take part in it and handed to
+ * {@link CopyStats} once, when the run ends. Typical use:
+ * <pre>
+ * long start = System.nanoTime();
+ * ... collect files ...
+ * run.record(Phase.COLLECT, start);
+ * </pre>
+ */
+public final class CopyRun {
+    public enum Outcome {
+        COMPLETED, CANCELLED, FAILED
+    }
+
+    private final String operation;
+    private final @Nullable CopyStats owner;
+    private final long startMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+    private final AtomicLongArray counters = new AtomicLongArray(Counter.values().length);
+    private final AtomicBoolean ended = new AtomicBoolean();
+    private volatile long totalNanos;
+    private volatile Outcome outcome;
+
+    CopyRun(@NotNull String operation, @Nullable CopyStats owner) {
+        this.operation = operation;
+        this.owner = owner;
+    }
+
+    /**
+     * A run that is never reported, for callers that are not instrumented.
+     */
+    public static @NotNull CopyRun detached() {
+        return new CopyRun("", null);
+    }
+
+    /**
+     * Adds the time from {@code startNanos} ({@link System#nanoTime()}) until now to {@code phase}.
+     */
+    public void record(@NotNull Phase phase, long startNanos) {
+        phaseNanos.addAndGet(phase.ordinal(), System.nanoTime() - startNanos);
+    }
+
+    public void add(@NotNull Counter counter, long delta) {
+        counters.addAndGet(counter.ordinal(), delta);
+    }
+
+    public void increment(@NotNull Counter counter) {
+        counters.incrementAndGet(counter.ordinal());
+    }
+
+    /**
+     * Ends the run and reports it. Later calls are ignored, so every exit path may call this.
+     */
+    public void end(@NotNull Outcome outcome) {
+        if (!ended.compareAndSet(false, true)) {
+            return;
+        }
+        this.totalNanos = System.nanoTime() - startNanos;
+        this.outcome = outcome;
+        if (owner != null) {
+            owner.report(this);
+        }
+    }
+
+    public @NotNull String getOperation() {
+        return operation;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public @Nullable Outcome getOutcome() {
+        return outcome;
+    }
+
+    public long getPhaseNanos(@NotNull Phase phase) {
+        return phaseNanos.get(phase.ordinal());
+    }
+
+    public long getCount(@NotNull Counter counter) {
+        return counters.get(counter.ordinal());
+    }
+}
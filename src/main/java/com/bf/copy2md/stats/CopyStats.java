@@ -0,0 +1,241 @@
+package com.bf.copy2md.stats;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.util.messages.Topic;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Performance statistics of all copies since the IDE started: a histogram per operation and
+ * phase, counter totals, and the most recent runs. Everything is kept in memory only; the
+ * Copy2MD tool window shows it and exports it as JSON.
+ */
+@Service(Service.Level.APP)
+public final class CopyStats {
+    public static final Topic<Listener> TOPIC = Topic.create("Copy2MD statistics", Listener.class);
+    private static final int RECENT_RUNS = 100;
+
+    private final Map<String, OperationStats> operations = new ConcurrentSkipListMap<>();
+    private final ArrayDeque<CopyRun> recent = new ArrayDeque<>();
+
+    public interface Listener {
+        /** Called on the reporting thread after a run ended or the statistics were reset. */
+        void statsChanged();
+    }
+
+    /**
+     * Aggregated runs of one operation, e.g. "Copy File".
+     */
+    public static final class OperationStats {
+        final String name;
+        final LongAdder completed = new LongAdder();
+        final LongAdder cancelled = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final DurationHistogram total = new DurationHistogram();
+        final Map<Phase, DurationHistogram> phases = new ConcurrentHashMap<>();
+        final AtomicLongArray counters = new AtomicLongArray(Counter.values().length);
+
+        OperationStats(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getRuns() {
+            return completed.sum() + cancelled.sum() + failed.sum();
+        }
+
+        public long getFailures() {
+            return failed.sum();
+        }
+
+        public @NotNull DurationHistogram getTotal() {
+            return total;
+        }
+
+        /** Histogram of a phase, empty if no run of this operation had it. */
+        public @NotNull DurationHistogram getPhase(@NotNull Phase phase) {
+            DurationHistogram histogram = phases.get(phase);
+            return histogram != null ? histogram : new DurationHistogram();
+        }
+
+        public long getCount(@NotNull Counter counter) {
+            return counters.get(counter.ordinal());
+        }
+    }
+
+    public static CopyStats getInstance() {
+        return ApplicationManager.getApplication().getService(CopyStats.class);
+    }
+
+    /**
+     * Starts timing a run of {@code operation}; it is reported when {@link CopyRun#end} is called.
+     */
+    public @NotNull CopyRun start(@NotNull String operation) {
+        return new CopyRun(operation, this);
+    }
+
+    void report(@NotNull CopyRun run) {
+        OperationStats stats = operations.computeIfAbsent(run.getOperation(), OperationStats::new);
+        switch (run.getOutcome() != null ? run.getOutcome() : CopyRun.Outcome.FAILED) {
+            case COMPLETED -> stats.completed.increment();
+            case CANCELLED -> stats.cancelled.increment();
+            case FAILED -> stats.failed.increment();
+        }
+        stats.total.record(run.getTotalNanos());
+        for (Phase phase : Phase.values()) {
+            long nanos = run.getPhaseNanos(phase);
+            if (nanos > 0) {
+                stats.phases.computeIfAbsent(phase, p -> new DurationHistogram()).record(nanos);
+            }
+        }
+        for (Counter counter : Counter.values()) {
+            stats.counters.addAndGet(counter.ordinal(), run.getCount(counter));
+        }
+        synchronized (recent) {
+            if (recent.size() == RECENT_RUNS) {
+                recent.removeLast();
+            }
+            recent.addFirst(run);
+        }
+        ApplicationManager.getApplication().getMessageBus().syncPublisher(TOPIC).statsChanged();
+    }
+
+    public @NotNull Collection<OperationStats> getOperations() {
+        return new ArrayList<>(operations.values());
+    }
+
+    /** Most recent runs first. */
+    public @NotNull List<CopyRun> getRecentRuns() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    public void reset() {
+        operations.clear();
+        synchronized (recent) {
+            recent.clear();
+        }
+        ApplicationManager.getApplication().getMessageBus().syncPublisher(TOPIC).statsChanged();
+    }
+
+    /**
+     * All statistics as a JSON document; durations are in milliseconds.
+     */
+    public @NotNull String toJson() {
+        StringBuilder json = new StringBuilder(4096);
+        json.append("{\n  \"generatedAt\": ").append(quote(Instant.now().toString())).append(",\n");
+        json.append("  \"operations\": [");
+        String separator = "\n";
+        for (OperationStats stats : getOperations()) {
+            json.append(separator).append("    {\"name\": ").append(quote(stats.name))
+                    .append(", \"completed\": ").append(stats.completed.sum())
+                    .append(", \"cancelled\": ").append(stats.cancelled.sum())
+                    .append(", \"failed\": ").append(stats.failed.sum())
+                    .append(",\n     \"total\": ");
+            appendHistogram(json, stats.total);
+            json.append(",\n     \"phases\": {");
+            String phaseSeparator = "";
+            for (Phase phase : Phase.values()) {
+                DurationHistogram histogram = stats.phases.get(phase);
+                if (histogram != null) {
+                    json.append(phaseSeparator).append(quote(phase.key())).append(": ");
+                    appendHistogram(json, histogram);
+                    phaseSeparator = ", ";
+                }
+            }
+            json.append("},\n     \"counters\": ");
+            appendCounters(json, stats.counters::get);
+            json.append('}');
+            separator = ",\n";
+        }
+        json.append("\n  ],\n  \"recentRuns\": [");
+        separator = "\n";
+        for (CopyRun run : getRecentRuns()) {
+            json.append(separator).append("    {\"operation\": ").append(quote(run.getOperation()))
+                    .append(", \"startedAt\": ").append(quote(Instant.ofEpochMilli(run.getStartMillis()).toString()))
+                    .append(", \"outcome\": ").append(quote(String.valueOf(run.getOutcome()).toLowerCase(Locale.ROOT)))
+                    .append(", \"totalMs\": ").append(millis(run.getTotalNanos()))
+                    .append(", \"phasesMs\": {");
+            String phaseSeparator = "";
+            for (Phase phase : Phase.values()) {
+                long nanos = run.getPhaseNanos(phase);
+                if (nanos > 0) {
+                    json.append(phaseSeparator).append(quote(phase.key())).append(": ").append(millis(nanos));
+                    phaseSeparator = ", ";
+                }
+            }
+            json.append("}, \"counters\": ");
+            appendCounters(json, ordinal -> run.getCount(Counter.values()[ordinal]));
+            json.append('}');
+            separator = ",\n";
+        }
+        json.append("\n  ]\n}\n");
+        return json.toString();
+    }
+
+    private static void appendHistogram(StringBuilder json, DurationHistogram histogram) {
+        json.append("{\"count\": ").append(histogram.getCount())
+                .append(", \"meanMs\": ").append(format(histogram.meanMillis()))
+                .append(", \"p50Ms\": ").append(format(histogram.percentileMillis(0.5)))
+                .append(", \"p95Ms\": ").append(format(histogram.percentileMillis(0.95)))
+                .append(", \"maxMs\": ").append(format(histogram.maxMillis())).append('}');
+    }
+
+    private static void appendCounters(StringBuilder json, IntToLongFunction values) {
+        json.append('{');
+        for (Counter counter : Counter.values()) {
+            if (counter.ordinal() > 0) {
+                json.append(", ");
+            }
+            json.append(quote(counter.key())).append(": ").append(values.applyAsLong(counter.ordinal()));
+        }
+        json.append('}');
+    }
+
+    private static String millis(long nanos) {
+        return format(nanos / 1e6);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,24 @@
+package com.bf.copy2md.stats;
+
+/**
+ * Counted quantities of a copy run.
+ */
+public enum Counter {
+    FILES("files"),
+    BYTES("bytes"),
+    OUTPUT_CHARS("outputChars"),
+    CACHE_HITS("cacheHits"),
+    DUPLICATES("duplicates"),
+    LOOKUPS("lookups");
+
+    private final String key;
+
+    Counter(String key) {
+        this.key = key;
+    }
+
+    /** Name used in the tool window and the JSON export. */
+    public String key() {
+        return key;
+    }
+}
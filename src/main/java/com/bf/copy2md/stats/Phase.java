@@ -0,0 +1,27 @@
+package com.bf.copy2md.stats;
+
+/**
+ * Timed stages of a copy run. Phases that run on several workers at once (reading, formatting)
+ * add up the time of all workers, so they can exceed the wall-clock total. {@link #WRITE} is the
+ * single writer appending finished fragments to the output and flushing it; {@link #CLIPBOARD}
+ * is only the hand-over of the result on the EDT.
+ */
+public enum Phase {
+    COLLECT("collect"),
+    RESOLVE("resolve"),
+    READ("read"),
+    FORMAT("format"),
+    WRITE("write"),
+    CLIPBOARD("clipboard");
+
+    private final String key;
+
+    Phase(String key) {
+        this.key = key;
+    }
+
+    /** Name used in the tool window and the JSON export. */
+    public String key() {
+        return key;
+    }
+}
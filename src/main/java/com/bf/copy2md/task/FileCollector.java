@@ -0,0 +1,180 @@
+package com.bf.copy2md.task;
+
+import com.bf.copy2md.ignore.IgnoreMatcher;
+import com.bf.copy2md.settings.Copy2MdSettings;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Expands selected files and directories into the files to copy. Directories are walked
+ * recursively and anything matched by the ignore rules is pruned before it is entered, so
+ * {@code build/} or {@code node_modules} are never listed, let alone read. The rules are the
+ * user's patterns from the settings, {@code .gitignore} files from the project root down, and
+ * the IDE's excluded roots. Files and directories selected explicitly are always kept.
+ * Each directory is listed in its own non-blocking read action, so a write action never waits
+ * for the walk; it cancels the listing in progress, which is then restarted.
+ */
+final class FileCollector {
+    private static final Logger LOG = Logger.getInstance(FileCollector.class);
+    private static final String GITIGNORE = ".gitignore";
+
+    private final ProjectFileIndex fileIndex;
+    private final @Nullable VirtualFile projectDir;
+    private final IgnoreMatcher userMatcher;
+    private final boolean respectGitignore;
+    private final boolean skipExcluded;
+    private int ignoredCount;
+
+    /**
+     * One directory's children, sorted into files and subdirectories to enter, inside a single
+     * read action. Has no side effects, so the read action can be restarted.
+     */
+    private static final class Listing {
+        final IgnoreMatcher childMatcher;
+        final List<VirtualFile> files = new ArrayList<>();
+        final List<VirtualFile> directories = new ArrayList<>();
+        int ignored;
+
+        Listing(@NotNull IgnoreMatcher childMatcher) {
+            this.childMatcher = childMatcher;
+        }
+    }
+
+    FileCollector(@NotNull Project project) {
+        this.fileIndex = ProjectFileIndex.getInstance(project);
+        this.projectDir = ProjectUtil.guessProjectDir(project);
+        Copy2MdSettings settings = Copy2MdSettings.getInstance();
+        this.userMatcher = IgnoreMatcher.of(settings.getIgnoreRules());
+        this.respectGitignore = settings.isRespectGitignore();
+        this.skipExcluded = settings.isSkipExcludedFiles();
+    }
+
+    /**
+     * Files keep the selection order, directory contents are sorted by path; duplicates are dropped.
+     */
+    @NotNull List<VirtualFile> collect(@NotNull List<VirtualFile> roots, @NotNull ProgressIndicator indicator) {
+        Set<VirtualFile> files = new LinkedHashSet<>();
+        for (VirtualFile root : roots) {
+            indicator.checkCanceled();
+            if (!root.isDirectory()) {
+                files.add(root);
+                continue;
+            }
+
+            List<VirtualFile> children = new ArrayList<>();
+            walk(root, children, indicator);
+            children.sort(Comparator.comparing(VirtualFile::getPath));
+            files.addAll(children);
+        }
+        return new ArrayList<>(files);
+    }
+
+    int getIgnoredCount() {
+        return ignoredCount;
+    }
+
+    private void walk(@NotNull VirtualFile root, @NotNull List<VirtualFile> files, @NotNull ProgressIndicator indicator) {
+        // Ignore paths are relative to the project directory, or to the root when it lies outside
+        VirtualFile base = projectDir != null && VfsUtilCore.isAncestor(projectDir, root, false) ? projectDir : root;
+        Deque<VirtualFile> directories = new ArrayDeque<>();
+        Deque<IgnoreMatcher> matchers = new ArrayDeque<>();
+        directories.push(root);
+        matchers.push(ReadAction.nonBlocking(() -> inheritedMatcher(root, base)).wrapProgress(indicator).executeSynchronously());
+        // Canonical directories already listed, so symlink cycles are entered once
+        Set<VirtualFile> visited = new HashSet<>();
+        visited.add(root.getCanonicalFile() != null ? root.getCanonicalFile() : root);
+
+        while (!directories.isEmpty()) {
+            indicator.checkCanceled();
+            VirtualFile directory = directories.pop();
+            IgnoreMatcher matcher = matchers.pop();
+            Listing listing = ReadAction.nonBlocking(() -> list(directory, matcher, base))
+                    .wrapProgress(indicator)
+                    .executeSynchronously();
+            ignoredCount += listing.ignored;
+            files.addAll(listing.files);
+            for (VirtualFile child : listing.directories) {
+                VirtualFile canonical = child.getCanonicalFile();
+                if (visited.add(canonical != null ? canonical : child)) {
+                    directories.push(child);
+                    matchers.push(listing.childMatcher);
+                }
+            }
+        }
+    }
+
+    private @NotNull Listing list(@NotNull VirtualFile directory, @NotNull IgnoreMatcher matcher, @NotNull VirtualFile base) {
+        Listing listing = new Listing(withGitignore(matcher, directory, base));
+        if (!directory.isValid()) {
+            return listing;
+        }
+        for (VirtualFile child : directory.getChildren()) {
+            if (isIgnored(child, base, listing.childMatcher)) {
+                listing.ignored++;
+            } else if (child.isDirectory()) {
+                listing.directories.add(child);
+            } else {
+                listing.files.add(child);
+            }
+        }
+        return listing;
+    }
+
+    private boolean isIgnored(@NotNull VirtualFile file, @NotNull VirtualFile base, @NotNull IgnoreMatcher matcher) {
+        if (skipExcluded && fileIndex.isExcluded(file)) {
+            return true;
+        }
+        String relativePath = VfsUtilCore.getRelativePath(file, base, '/');
+        return relativePath != null && matcher.isIgnored(relativePath, file.isDirectory());
+    }
+
+    /**
+     * Matcher with the {@code .gitignore} files of every directory from {@code base} down to,
+     * but not including, {@code root}.
+     */
+    private @NotNull IgnoreMatcher inheritedMatcher(@NotNull VirtualFile root, @NotNull VirtualFile base) {
+        IgnoreMatcher matcher = userMatcher;
+        if (!respectGitignore || root.equals(base)) {
+            return matcher;
+        }
+        Deque<VirtualFile> ancestors = new ArrayDeque<>();
+        for (VirtualFile dir = root.getParent(); dir != null; dir = dir.getParent()) {
+            ancestors.push(dir);
+            if (dir.equals(base)) {
+                break;
+            }
+        }
+        for (VirtualFile dir : ancestors) {
+            matcher = withGitignore(matcher, dir, base);
+        }
+        return matcher;
+    }
+
+    private @NotNull IgnoreMatcher withGitignore(@NotNull IgnoreMatcher matcher, @NotNull VirtualFile dir, @NotNull VirtualFile base) {
+        if (!respectGitignore) {
+            return matcher;
+        }
+        VirtualFile gitignore = dir.findChild(GITIGNORE);
+        String directoryPath = VfsUtilCore.getRelativePath(dir, base, '/');
+        if (gitignore == null || gitignore.isDirectory() || directoryPath == null) {
+            return matcher;
+        }
+        try {
+            return matcher.withGitignore(directoryPath, VfsUtilCore.loadText(gitignore));
+        } catch (IOException e) {
+            LOG.warn("Could not read " + gitignore.getPath(), e);
+            return matcher;
+        }
+    }
+}
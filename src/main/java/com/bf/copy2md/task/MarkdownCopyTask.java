@@ -0,0 +1,296 @@
+package com.bf.copy2md.task;
+
+import com.bf.copy2md.cache.MarkdownFragmentCache;
+import com.bf.copy2md.cache.MarkdownFragmentLru;
+import com.bf.copy2md.formatter.DuplicateIndex;
+import com.bf.copy2md.formatter.MarkdownFormatter;
+import com.bf.copy2md.formatter.MarkdownFragment;
+import com.bf.copy2md.outline.OutlineProvider;
+import com.bf.copy2md.output.MarkdownOutput;
+import com.bf.copy2md.settings.Copy2MdSettings;
+import com.bf.copy2md.stats.CopyRun;
+import com.bf.copy2md.stats.CopyStats;
+import com.bf.copy2md.stats.Counter;
+import com.bf.copy2md.stats.Phase;
+import com.bf.copy2md.util.ContentHash;
+import com.bf.copy2md.util.CopyUtil;
+import com.bf.copy2md.util.CountingAppendable;
+import com.bf.copy2md.util.FileContentReader;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reads and formats a list of files in the background and hands the result to a {@link MarkdownOutput}.
+ * Directories are expanded recursively by {@link FileCollector}, minus ignored paths. Files are
+ * read on a bounded worker pool while a single writer streams them through the formatter into
+ * the output in order, so the result does not depend on scheduling. Fragments of unchanged files come from {@link MarkdownFragmentCache}.
+ * Workers also hash each file's content, and a file with the same content as an earlier one is
+ * written as a reference to it. Only {@link #onSuccess()} runs on the EDT. Phase timings and counters are reported to {@link CopyStats}.
+ * In the outline mode each file is reduced to its declarations by an {@link OutlineProvider},
+ * which reads only what it needs; outlines are neither cached nor deduplicated.
+ */
+public class MarkdownCopyTask extends Task.Backgroundable {
+    private static final Logger LOG = Logger.getInstance(MarkdownCopyTask.class);
+    private static final int WORKER_COUNT = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors() - 1));
+    private static final ExecutorService READ_EXECUTOR =
+            AppExecutorUtil.createBoundedApplicationPoolExecutor("Copy2MD File Reader", WORKER_COUNT);
+    // Upper bound on fragments read ahead of the writer, keeps memory flat for huge selections
+    private static final int READ_AHEAD = WORKER_COUNT * 4;
+    // Expected size of one file's outline, for the output size estimate
+    private static final int OUTLINE_SIZE_HINT = 4 * 1024;
+
+    private final MarkdownFormatter formatter;
+    private final List<VirtualFile> roots;
+    private final String header;
+    private final MarkdownOutput output;
+    private final MarkdownFragmentCache fragmentCache;
+    private final Queue<String> failedFiles = new ConcurrentLinkedQueue<>();
+    private final Queue<String> binaryFiles = new ConcurrentLinkedQueue<>();
+    private final long maxFileSize;
+    private final int truncationWindow;
+    private final @Nullable DuplicateIndex duplicates;
+    private final boolean outline;
+    private final CopyRun stats;
+    private int fileCount;
+    private int ignoredCount;
+
+    /**
+     * @param operation name the run is reported under in the statistics, e.g. the action's text
+     */
+    public MarkdownCopyTask(@NotNull Project project, @NotNull String title, @NotNull String operation,
+                            @NotNull List<VirtualFile> roots, @NotNull String header,
+                            @NotNull MarkdownOutput output) {
+        this(project, title, operation, roots, header, output, false);
+    }
+
+    /**
+     * @param outline copy each file's declarations only, see {@link OutlineProvider}
+     */
+    public MarkdownCopyTask(@NotNull Project project, @NotNull String title, @NotNull String operation,
+                            @NotNull List<VirtualFile> roots, @NotNull String header,
+                            @NotNull MarkdownOutput output, boolean outline) {
+        super(project, title, true);
+        this.stats = CopyStats.getInstance().start(operation);
+        this.roots = roots;
+        this.header = header;
+        this.output = output;
+        this.fragmentCache = MarkdownFragmentCache.getInstance(project);
+        Copy2MdSettings settings = Copy2MdSettings.getInstance();
+        this.maxFileSize = settings.getMaxFileSizeKb() * 1024L;
+        this.truncationWindow = settings.getTruncationWindowKb() * 1024;
+        this.formatter = new MarkdownFormatter(settings.isCompactOutput());
+        // Equal outlines do not mean equal files
+        this.duplicates = settings.isDeduplicateFiles() && !outline ? new DuplicateIndex() : null;
+        this.outline = outline;
+    }
+
+    /**
+     * A file as read by a worker: either its ready fragment, or its raw content when it is too
+     * large to cache and is streamed through the formatter by the writer instead. Both come with
+     * the hash and length of the content.
+     */
+    private static final class ReadResult {
+        final String fragment;
+        final CharSequence content;
+        final long contentHash;
+        final int contentLength;
+
+        ReadResult(String fragment, CharSequence content, long contentHash, int contentLength) {
+            this.fragment = fragment;
+            this.content = content;
+            this.contentHash = contentHash;
+            this.contentLength = contentLength;
+        }
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+        indicator.setIndeterminate(true);
+        indicator.setText("Collecting files...");
+        long collectStart = System.nanoTime();
+        FileCollector collector = new FileCollector(getProject());
+        List<VirtualFile> files = collector.collect(roots, indicator);
+        fileCount = files.size();
+        ignoredCount = collector.getIgnoredCount();
+        stats.record(Phase.COLLECT, collectStart);
+        stats.add(Counter.FILES, fileCount);
+
+        indicator.setIndeterminate(false);
+        indicator.setText("Formatting " + fileCount + " file(s) as Markdown...");
+
+        Deque<Future<ReadResult>> pending = new ArrayDeque<>();
+        int submitted = 0;
+        try {
+            output.begin(header, estimateOutputSize(files));
+            for (int written = 0; written < files.size(); written++) {
+                while (submitted < files.size() && pending.size() < READ_AHEAD) {
+                    VirtualFile file = files.get(submitted++);
+                    pending.add(READ_EXECUTOR.submit(() -> indicator.isCanceled() ? null : read(file)));
+                }
+
+                VirtualFile file = files.get(written);
+                indicator.setText2(file.getPresentableUrl());
+                indicator.setFraction((double) written / files.size());
+
+                ReadResult read = ProgressIndicatorUtils.awaitWithCheckCanceled(pending.poll(), indicator);
+                if (read == null) {
+                    continue;
+                }
+                long writeStart = System.nanoTime();
+                String relativePath = duplicates != null ? formatter.relativePath(getProject(), file) : null;
+                String first = relativePath != null
+                        ? duplicates.firstWith(read.contentHash, read.contentLength, relativePath) : null;
+                if (first != null) {
+                    MarkdownFragment.appendReference(output.fileTarget(), relativePath, first);
+                    stats.increment(Counter.DUPLICATES);
+                } else if (read.fragment != null) {
+                    output.fileTarget().append(read.fragment);
+                    stats.add(Counter.OUTPUT_CHARS, read.fragment.length());
+                } else {
+                    // Too large to cache, so it is formatted here instead of by the worker
+                    // Compact mode rewrites the content, so count what actually reaches the output
+                    CountingAppendable target = new CountingAppendable(output.fileTarget());
+                    formatter.appendFileContent(target, getProject(), file, read.content);
+                    stats.add(Counter.OUTPUT_CHARS, target.getCount());
+                    stats.record(Phase.FORMAT, writeStart);
+                    writeStart = System.nanoTime();
+                }
+                output.endFile();
+                stats.record(Phase.WRITE, writeStart);
+            }
+            long finishStart = System.nanoTime();
+            output.finish();
+            stats.record(Phase.WRITE, finishStart);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (Future<ReadResult> future : pending) {
+                future.cancel(false);
+            }
+        }
+        indicator.setFraction(1.0);
+    }
+
+    private int estimateOutputSize(@NotNull List<VirtualFile> files) {
+        String basePath = getProject().getBasePath();
+        long size = header.length();
+        long limit = outline ? OUTLINE_SIZE_HINT : maxFileSize;
+        for (VirtualFile file : files) {
+            size += MarkdownFormatter.estimateFragmentSize(file.getPath(), Math.min(file.getLength(), limit))
+                    - (basePath != null ? basePath.length() : 0);
+        }
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(size, 16));
+    }
+
+    private @Nullable ReadResult read(@NotNull VirtualFile file) {
+        try {
+            if (outline) {
+                return readOutline(file);
+            }
+            long stamp = MarkdownFragmentCache.stampOf(file);
+            MarkdownFragmentLru.Entry cached = fragmentCache.get(file, stamp);
+            if (cached != null) {
+                stats.increment(Counter.CACHE_HITS);
+                return new ReadResult(cached.getFragment(), null, cached.getContentHash(), cached.getContentLength());
+            }
+
+            long readStart = System.nanoTime();
+            if (FileContentReader.isBinary(file)) {
+                binaryFiles.add(file.getName());
+                return null;
+            }
+            CharSequence content = FileContentReader.readContent(file, maxFileSize, truncationWindow);
+            stats.record(Phase.READ, readStart);
+            if (content == null) {
+                LOG.warn("File is no longer valid: " + file.getPath());
+                failedFiles.add(file.getName());
+                return null;
+            }
+            stats.add(Counter.BYTES, file.getLength());
+            long contentHash = ContentHash.hash(content);
+            if (!MarkdownFragmentCache.isCacheable(content.length())) {
+                return new ReadResult(null, content, contentHash, content.length());
+            }
+            long formatStart = System.nanoTime();
+            String fragment = formatter.formatFileContent(getProject(), file, content);
+            stats.record(Phase.FORMAT, formatStart);
+            fragmentCache.put(file, stamp, fragment, contentHash, content.length());
+            return new ReadResult(fragment, null, contentHash, content.length());
+        } catch (Exception ex) {
+            LOG.warn("Error processing file: " + file.getPath() + ", error: " + ex.getMessage(), ex);
+            failedFiles.add(file.getName());
+            return null;
+        }
+    }
+
+    private @Nullable ReadResult readOutline(@NotNull VirtualFile file) throws IOException {
+        long readStart = System.nanoTime();
+        if (FileContentReader.isBinary(file)) {
+            binaryFiles.add(file.getName());
+            return null;
+        }
+        OutlineProvider provider = OutlineProvider.forFile(file);
+        String fileOutline = provider != null ? provider.buildOutline(getProject(), file) : null;
+        stats.record(Phase.READ, readStart);
+
+        long formatStart = System.nanoTime();
+        String fragment = formatter.formatOutline(getProject(), file, fileOutline);
+        stats.record(Phase.FORMAT, formatStart);
+        return new ReadResult(fragment, null, 0, 0);
+    }
+
+    @Override
+    public void onSuccess() {
+        Project project = getProject();
+        if (!failedFiles.isEmpty()) {
+            CopyUtil.showErrorHint(project, "Error reading file(s): " + summarize(failedFiles));
+        }
+        if (!binaryFiles.isEmpty()) {
+            CopyUtil.showInfoNotification(project, "Skipped binary file(s): " + summarize(binaryFiles));
+        }
+        long publishStart = System.nanoTime();
+        output.publish(project);
+        stats.record(Phase.CLIPBOARD, publishStart);
+        stats.end(CopyRun.Outcome.COMPLETED);
+        LOG.info("Successfully processed " + (fileCount - failedFiles.size() - binaryFiles.size()) + " files, "
+                + ignoredCount + " ignored path(s) pruned");
+    }
+
+    private static String summarize(Collection<String> names) {
+        int shown = 10;
+        if (names.size() <= shown) {
+            return String.join(", ", names);
+        }
+        List<String> head = new ArrayList<>(names).subList(0, shown);
+        return String.join(", ", head) + " and " + (names.size() - shown) + " more";
+    }
+
+    @Override
+    public void onCancel() {
+        output.discard();
+        stats.end(CopyRun.Outcome.CANCELLED);
+        CopyUtil.showInfoNotification(getProject(), "Copy to Markdown cancelled");
+    }
+
+    @Override
+    public void onThrowable(@NotNull Throwable error) {
+        output.discard();
+        stats.end(CopyRun.Outcome.FAILED);
+        LOG.warn("Error copying files: " + error.getMessage(), error);
+        CopyUtil.showErrorHint(getProject(), "Error copying files: " + error.getMessage());
+    }
+}
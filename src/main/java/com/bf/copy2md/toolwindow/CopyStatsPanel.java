@@ -0,0 +1,191 @@
+package com.bf.copy2md.toolwindow;
+
+import com.bf.copy2md.stats.CopyRun;
+import com.bf.copy2md.stats.CopyStats;
+import com.bf.copy2md.stats.Counter;
+import com.bf.copy2md.stats.DurationHistogram;
+import com.bf.copy2md.stats.Phase;
+import com.bf.copy2md.util.CopyUtil;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.ActionToolbar;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.table.JBTable;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.table.DefaultTableModel;
+import java.awt.datatransfer.StringSelection;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Two tables: per operation the run count, total and per-phase latencies and counter totals, and
+ * below it the most recent runs. Refreshes itself whenever a run is reported, at most once per
+ * EDT cycle however many runs end meanwhile.
+ */
+class CopyStatsPanel extends SimpleToolWindowPanel implements Disposable {
+    private static final Phase[] SHOWN_PHASES = Phase.values();
+
+    private final Project project;
+    private final DefaultTableModel operationModel = new ReadOnlyModel();
+    private final DefaultTableModel runModel = new ReadOnlyModel();
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    CopyStatsPanel(@NotNull Project project) {
+        super(true, true);
+        this.project = project;
+
+        List<String> operationColumns = new ArrayList<>(List.of("Operation", "Runs", "Failed", "p50", "p95", "Max"));
+        for (Phase phase : SHOWN_PHASES) {
+            operationColumns.add(phase.key() + " (avg)");
+        }
+        for (Counter counter : Counter.values()) {
+            operationColumns.add(counter.key());
+        }
+        operationModel.setColumnIdentifiers(operationColumns.toArray());
+
+        List<String> runColumns = new ArrayList<>(List.of("Time", "Operation", "Outcome", "Total"));
+        for (Phase phase : SHOWN_PHASES) {
+            runColumns.add(phase.key());
+        }
+        for (Counter counter : Counter.values()) {
+            runColumns.add(counter.key());
+        }
+        runModel.setColumnIdentifiers(runColumns.toArray());
+
+        JBSplitter splitter = new JBSplitter(true, 0.4f);
+        splitter.setFirstComponent(ScrollPaneFactory.createScrollPane(new JBTable(operationModel)));
+        splitter.setSecondComponent(ScrollPaneFactory.createScrollPane(new JBTable(runModel)));
+        setContent(splitter);
+        setToolbar(createToolbar().getComponent());
+
+        ApplicationManager.getApplication().getMessageBus().connect(this)
+                .subscribe(CopyStats.TOPIC, this::queueRefresh);
+        refresh();
+    }
+
+    private ActionToolbar createToolbar() {
+        DefaultActionGroup group = new DefaultActionGroup();
+        group.add(new DumbAwareAction("Refresh", "Reload the statistics", AllIcons.Actions.Refresh) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                refresh();
+            }
+        });
+        group.add(new DumbAwareAction("Copy as JSON", "Copy the statistics to the clipboard as JSON", AllIcons.Actions.Copy) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                CopyPasteManager.getInstance().setContents(new StringSelection(CopyStats.getInstance().toJson()));
+            }
+        });
+        group.add(new DumbAwareAction("Export as JSON", "Save the statistics to a JSON file", AllIcons.ToolbarDecorator.Export) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                exportJson();
+            }
+        });
+        group.add(new DumbAwareAction("Reset", "Discard all collected statistics", AllIcons.Actions.GC) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                CopyStats.getInstance().reset();
+            }
+        });
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("Copy2MDStats", group, true);
+        toolbar.setTargetComponent(this);
+        return toolbar;
+    }
+
+    private void exportJson() {
+        Path target = CopyUtil.chooseSaveFile(project, "Export Copy2MD Statistics",
+                "Choose where to save the statistics", "json", "copy2md-stats.json");
+        if (target == null) {
+            return;
+        }
+        try {
+            Files.writeString(target, CopyStats.getInstance().toJson(), StandardCharsets.UTF_8);
+            CopyUtil.showInfoNotification(project, "Statistics exported to " + target);
+        } catch (IOException ex) {
+            CopyUtil.showErrorHint(project, "Error exporting statistics: " + ex.getMessage());
+        }
+    }
+
+    private void queueRefresh() {
+        if (refreshQueued.compareAndSet(false, true)) {
+            ApplicationManager.getApplication().invokeLater(() -> {
+                refreshQueued.set(false);
+                refresh();
+            }, project.getDisposed());
+        }
+    }
+
+    private void refresh() {
+        CopyStats stats = CopyStats.getInstance();
+
+        operationModel.setRowCount(0);
+        for (CopyStats.OperationStats operation : stats.getOperations()) {
+            DurationHistogram total = operation.getTotal();
+            List<Object> row = new ArrayList<>(List.of(operation.getName(), operation.getRuns(), operation.getFailures(),
+                    millis(total.percentileMillis(0.5)), millis(total.percentileMillis(0.95)), millis(total.maxMillis())));
+            for (Phase phase : SHOWN_PHASES) {
+                DurationHistogram histogram = operation.getPhase(phase);
+                row.add(histogram.getCount() > 0 ? millis(histogram.meanMillis()) : "");
+            }
+            for (Counter counter : Counter.values()) {
+                row.add(formatCount(counter, operation.getCount(counter)));
+            }
+            operationModel.addRow(row.toArray());
+        }
+
+        runModel.setRowCount(0);
+        SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss", Locale.ROOT);
+        for (CopyRun run : stats.getRecentRuns()) {
+            List<Object> row = new ArrayList<>(List.of(time.format(new Date(run.getStartMillis())), run.getOperation(),
+                    StringUtil.toLowerCase(String.valueOf(run.getOutcome())), millis(run.getTotalNanos() / 1e6)));
+            for (Phase phase : SHOWN_PHASES) {
+                long nanos = run.getPhaseNanos(phase);
+                row.add(nanos > 0 ? millis(nanos / 1e6) : "");
+            }
+            for (Counter counter : Counter.values()) {
+                row.add(formatCount(counter, run.getCount(counter)));
+            }
+            runModel.addRow(row.toArray());
+        }
+    }
+
+    private static String millis(double millis) {
+        return millis < 10 ? String.format(Locale.ROOT, "%.2f ms", millis) : String.format(Locale.ROOT, "%.0f ms", millis);
+    }
+
+    private static String formatCount(Counter counter, long value) {
+        return counter == Counter.BYTES ? StringUtil.formatFileSize(value) : String.valueOf(value);
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    private static final class ReadOnlyModel extends DefaultTableModel {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.bf.copy2md.toolwindow;
+
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The Copy2MD tool window, showing the statistics collected by {@link com.bf.copy2md.stats.CopyStats}.
+ */
+public class CopyStatsToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        CopyStatsPanel panel = new CopyStatsPanel(project);
+        Content content = ContentFactory.getInstance().createContent(panel, "Statistics", false);
+        content.setDisposer(panel);
+        toolWindow.getContentManager().addContent(content);
+    }
+}
@@ -2,13 +2,23 @@ package com.bf.copy2md.util;
 
 import com.intellij.notification.NotificationGroupManager;
 import com.intellij.notification.NotificationType;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
 import com.intellij.openapi.ide.CopyPasteManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
 import java.awt.datatransfer.StringSelection;
+import java.awt.datatransfer.Transferable;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class CopyUtil {
     public static void copyToClipboardWithNotification(String content, Project project) {
-        CopyPasteManager.getInstance().setContents(new StringSelection(content));
+        copyToClipboardWithNotification(new StringSelection(content), project);
+    }
+
+    public static void copyToClipboardWithNotification(Transferable content, Project project) {
+        CopyPasteManager.getInstance().setContents(content);
 
         NotificationGroupManager.getInstance()
                 .getNotificationGroup("Copy2MD Notification Group")
@@ -29,4 +39,23 @@ public class CopyUtil {
                 .createNotification(message, NotificationType.INFORMATION)
                 .notify(project);
     }
-}
\ No newline at end of file
+
+    /**
+     * Asks where to export the Markdown file. Returns null if the dialog was cancelled.
+     */
+    public static Path chooseExportFile(Project project, String defaultName) {
+        return chooseSaveFile(project, "Export to Markdown File", "Choose where to save the Markdown output", "md", defaultName);
+    }
+
+    /**
+     * Save dialog for a file with the given extension. Returns null if the dialog was cancelled.
+     */
+    public static Path chooseSaveFile(Project project, String title, String description, String extension, String defaultName) {
+        FileSaverDescriptor descriptor = new FileSaverDescriptor(title, description, extension);
+        Path baseDir = project.getBasePath() != null ? Paths.get(project.getBasePath()) : null;
+        VirtualFileWrapper wrapper = FileChooserFactory.getInstance()
+                .createSaveFileDialog(descriptor, project)
+                .save(baseDir, defaultName);
+        return wrapper != null ? wrapper.getFile().toPath() : null;
+    }
+}
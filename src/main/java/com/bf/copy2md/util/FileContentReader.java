@@ -0,0 +1,166 @@
+package com.bf.copy2md.util;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.fileTypes.LanguageFileType;
+import com.intellij.openapi.fileTypes.PlainTextFileType;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads file text the way the editor sees it. Files with a loaded document are served from the
+ * document, unsaved changes included and without any I/O; other files are decoded with their
+ * own charset instead of assuming UTF-8. Files above a size limit are reduced to a head and a
+ * tail window read with bounded buffers, so a huge log never ends up on the heap as a whole.
+ */
+public final class FileContentReader {
+    private static final int SNIFF_BYTES = 8 * 1024;
+
+    private FileContentReader() {
+    }
+
+    /**
+     * Cheap binary check: the file type first, then a sniff of the first few KB for NUL bytes when
+     * the type does not tell (plain text, unknown extensions). Open documents are always text.
+     */
+    public static boolean isBinary(@NotNull VirtualFile file) throws IOException {
+        FileType fileType = file.getFileType();
+        if (fileType.isBinary()) {
+            return true;
+        }
+        if (fileType instanceof LanguageFileType && fileType != PlainTextFileType.INSTANCE) {
+            return false;
+        }
+        if (FileDocumentManager.getInstance().getCachedDocument(file) != null) {
+            return false;
+        }
+        try (InputStream in = file.getInputStream()) {
+            byte[] head = new byte[SNIFF_BYTES];
+            int read = readFully(in, head, head.length);
+            for (int i = 0; i < read; i++) {
+                if (head[i] == 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param maxBytes    files larger than this are truncated to a head and a tail window
+     * @param windowBytes size of each of the two windows
+     * @return the file text, or null if the file is no longer valid
+     */
+    public static @Nullable CharSequence readContent(@NotNull VirtualFile file, long maxBytes, int windowBytes) throws IOException {
+        windowBytes = (int) Math.min(windowBytes, maxBytes / 2);
+        CharSequence text = ReadAction.compute(() -> {
+            Document document = file.isValid() ? FileDocumentManager.getInstance().getCachedDocument(file) : null;
+            return document != null ? document.getImmutableCharSequence() : null;
+        });
+        if (text != null) {
+            if (text.length() <= maxBytes) {
+                return text;
+            }
+            int headEnd = lastLineEnd(text, 0, windowBytes);
+            int tailStart = firstLineStart(text, text.length() - windowBytes, text.length());
+            return elide(text, headEnd, text.subSequence(tailStart, text.length()), tailStart - headEnd);
+        }
+        if (!file.isValid()) {
+            return null;
+        }
+        if (file.getLength() <= maxBytes) {
+            return LoadTextUtil.loadText(file);
+        }
+        return readHeadAndTail(file, windowBytes);
+    }
+
+    private static CharSequence readHeadAndTail(@NotNull VirtualFile file, int windowBytes) throws IOException {
+        long length = file.getLength();
+        byte[] head = new byte[windowBytes];
+        byte[] tail = new byte[windowBytes];
+        int headRead;
+        int tailRead;
+        try (InputStream in = file.getInputStream()) {
+            headRead = readFully(in, head, windowBytes);
+            long toSkip = length - headRead - windowBytes;
+            while (toSkip > 0) {
+                long skipped = in.skip(toSkip);
+                if (skipped <= 0) {
+                    break;
+                }
+                toSkip -= skipped;
+            }
+            tailRead = readFully(in, tail, windowBytes);
+        }
+
+        // Cut both windows at line boundaries, which also drops characters split by the byte window
+        String headText = new String(head, 0, headRead, file.getCharset());
+        String tailText = new String(tail, 0, tailRead, file.getCharset());
+        int headEnd = lastLineEnd(headText, 0, headText.length());
+        int tailStart = firstLineStart(tailText, 0, tailText.length());
+        long omittedBytes = length - headRead - tailRead + (headText.length() - headEnd) + tailStart;
+        return elide(headText, headEnd, tailText.substring(tailStart), omittedBytes);
+    }
+
+    private static CharSequence elide(CharSequence head, int headEnd, CharSequence tail, long omitted) {
+        StringBuilder result = new StringBuilder(headEnd + tail.length() + 64);
+        result.append(head, 0, headEnd);
+        result.append("\n... [").append(StringUtil.formatFileSize(omitted)).append(" omitted] ...\n\n");
+        result.append(tail);
+        return result;
+    }
+
+    /**
+     * End of the last complete line in {@code [start, limit)}, or {@code limit} if there is none.
+     */
+    private static int lastLineEnd(CharSequence text, int start, int limit) {
+        limit = Math.min(limit, text.length());
+        for (int i = limit - 1; i >= start; i--) {
+            if (text.charAt(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Start of the first complete line in {@code [start, end)}, or {@code start} if there is none.
+     */
+    private static int firstLineStart(CharSequence text, int start, int end) {
+        start = Math.max(start, 0);
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return start;
+    }
+
+    private static int readFully(InputStream in, byte[] buffer, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int read = in.read(buffer, total, length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * Stamp of the text {@link #readContent} returns: the document's if it is loaded, the file's otherwise.
+     */
+    public static long modificationStamp(@NotNull VirtualFile file) {
+        Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+        return document != null ? document.getModificationStamp() : file.getModificationStamp();
+    }
+}